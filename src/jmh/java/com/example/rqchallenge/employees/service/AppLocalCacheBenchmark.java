@@ -0,0 +1,50 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * By ID cache reads and writes from several threads at once, in a read-heavy mix
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AppLocalCacheBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private AppLocalCache appLocalCache;
+    private String[] ids;
+    private List<Employee> employees;
+
+    @Setup
+    public void setup() {
+        appLocalCache = new AppLocalCache(10_000, 300_000, 30_000);
+        employees = BenchmarkData.roster(size);
+        ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = String.valueOf(employees.get(i).getId());
+            appLocalCache.addToEmployeeCacheById(ids[i], employees.get(i));
+        }
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(6)
+    public Employee get() {
+        return appLocalCache.getFromEmployeeCacheById(ids[ThreadLocalRandom.current().nextInt(size)]);
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(2)
+    public void put() {
+        int index = ThreadLocalRandom.current().nextInt(size);
+        appLocalCache.addToEmployeeCacheById(ids[index], employees.get(index));
+    }
+}
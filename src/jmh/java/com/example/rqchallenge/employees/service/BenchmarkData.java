@@ -0,0 +1,51 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates deterministic rosters shaped like the employee API responses
+ */
+final class BenchmarkData {
+    private static final String[] FIRST_NAMES = {"Tiger", "Garrett", "Ashton", "Cedric", "Airi", "Brielle", "Herrod",
+            "Rhona", "Colleen", "Sonya", "Jena", "Quinn", "Charde", "Haley", "Tatyana", "Michael", "Paul", "Gloria"};
+    private static final String[] LAST_NAMES = {"Nixon", "Winters", "Cox", "Kelly", "Satou", "Williamson", "Chandler",
+            "Davidson", "Hurst", "Frost", "Gaines", "Flynn", "Marshall", "Kennedy", "Fitzpatrick", "Silva", "Byrd", "Little"};
+
+    private BenchmarkData() {}
+
+    static List<Employee> roster(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Employee> employees = new ArrayList<>(size);
+
+        for (int id = 1; id <= size; id++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            employees.add(new Employee(id, name, random.nextInt(20_000, 500_000), random.nextInt(18, 70), ""));
+        }
+        return employees;
+    }
+
+    static byte[] rosterJson(int size) {
+        StringBuilder json = new StringBuilder(size * 110).append("{\"status\":\"success\",\"data\":[");
+
+        List<Employee> employees = roster(size);
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(employee.getId())
+                    .append(",\"employee_name\":\"").append(employee.getEmployeeName())
+                    .append("\",\"employee_salary\":").append(employee.getEmployeeSalary())
+                    .append(",\"employee_age\":").append(employee.getEmployeeAge())
+                    .append(",\"profile_image\":\"\"}");
+        }
+
+        return json.append("],\"message\":\"Successfully! All records has been fetched.\"}")
+                .toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Salary scans and id lookups over the roster columns against the same work over a list of Employee objects
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColumnScanBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private List<Employee> employees;
+    private EmployeeColumns columns;
+    private int lookupId;
+
+    @Setup
+    public void setup() {
+        employees = BenchmarkData.roster(size);
+        columns = EmployeeColumns.of(employees);
+        lookupId = size / 2;
+    }
+
+    @Benchmark
+    public long columnSalarySum() {
+        long sum = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            sum += columns.getSalary(row);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long objectSalarySum() {
+        long sum = 0;
+        for (Employee employee : employees) {
+            sum += employee.getEmployeeSalary();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int columnIdLookup() {
+        return columns.rowOf(lookupId);
+    }
+
+    @Benchmark
+    public Employee objectIdLookup() {
+        for (Employee employee : employees) {
+            if (employee.getId() == lookupId) {
+                return employee;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public EmployeeColumns buildColumns() {
+        return EmployeeColumns.of(employees);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name search through the trigram index against the linear scan it replaced, plus the cost of building the index
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NameSearchBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"Nixon", "ar", "Zzyzx"})
+    private String query;
+
+    private List<Employee> employees;
+    private EmployeeColumns columns;
+    private EmployeeNameIndex nameIndex;
+
+    @Setup
+    public void setup() {
+        employees = BenchmarkData.roster(size);
+        columns = EmployeeColumns.of(employees);
+        nameIndex = new EmployeeNameIndex(columns);
+    }
+
+    @Benchmark
+    public List<Employee> indexSearch() {
+        return nameIndex.search(query, false, false, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Employee> linearScan() {
+        return employees.stream()
+                .filter(employee -> employee.getEmployeeName().contains(query))
+                .toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public EmployeeNameIndex buildIndex() {
+        return new EmployeeNameIndex(columns);
+    }
+}
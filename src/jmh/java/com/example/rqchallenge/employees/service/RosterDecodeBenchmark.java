@@ -0,0 +1,36 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the full roster response, as done on every roster cache miss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RosterDecodeBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private byte[] rosterJson;
+    private EmployeeJsonDecoder employeeJsonDecoder;
+
+    @Setup
+    public void setup() {
+        rosterJson = BenchmarkData.rosterJson(size);
+        employeeJsonDecoder = new EmployeeJsonDecoder(new ObjectMapper());
+    }
+
+    @Benchmark
+    public List<Employee> decodeRoster() throws IOException {
+        return employeeJsonDecoder.decodeEmployeeList(new ByteArrayInputStream(rosterJson));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top ten earners from the precomputed salary ranking against sorting the whole roster per request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TopEarnersBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private List<Employee> employees;
+    private EmployeeColumns columns;
+    private SalaryRanking salaryRanking;
+
+    @Setup
+    public void setup() {
+        employees = BenchmarkData.roster(size);
+        columns = EmployeeColumns.of(employees);
+        salaryRanking = new SalaryRanking(columns);
+    }
+
+    @Benchmark
+    public List<String> rankingTopTen() {
+        return salaryRanking.getTopNames(10);
+    }
+
+    @Benchmark
+    public List<String> fullSortTopTen() {
+        return employees.stream()
+                .sorted(Comparator.comparingInt(Employee::getEmployeeSalary).reversed())
+                .limit(10)
+                .map(Employee::getEmployeeName)
+                .toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SalaryRanking buildRanking() {
+        return new SalaryRanking(columns);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.rqchallenge.employees.service;
+
+import org.apache.http.client.utils.URIBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.rqchallenge.employees.config.Constants.EMPLOYEE_PATH;
+
+/**
+ * Per-request URI construction for the by ID endpoint, as done in EmployeeService
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UriBuilderBenchmark {
+
+    private final String employeeApiUrl = "https://dummy.restapiexample.com/api/v1";
+    private final String employeeId = "4711";
+
+    @Benchmark
+    public URI uriBuilder() throws URISyntaxException {
+        return new URIBuilder(employeeApiUrl.concat(EMPLOYEE_PATH).concat("/").concat(employeeId)).build();
+    }
+
+    @Benchmark
+    public URI uriCreate() {
+        return URI.create(employeeApiUrl + EMPLOYEE_PATH + "/" + employeeId);
+    }
+}
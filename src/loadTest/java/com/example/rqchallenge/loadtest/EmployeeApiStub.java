@@ -0,0 +1,153 @@
+package com.example.rqchallenge.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the dummy employee API on localhost.
+ * Serves /employees, /employee/{id}, /create and /delete/{id} in the upstream response format, after an
+ * optional delay, and fails a configurable share of calls with 500 or 429.
+ */
+@Slf4j
+public class EmployeeApiStub implements AutoCloseable {
+    private final LoadTestSettings settings;
+    private final byte[] rosterResponse;
+    private final AtomicInteger nextId;
+    private final Map<String, LongAdder> callCounts = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private HttpServer server;
+
+    public EmployeeApiStub(LoadTestSettings settings) {
+        this.settings = settings;
+        this.rosterResponse = rosterResponse(settings.getRosterSize());
+        this.nextId = new AtomicInteger(settings.getRosterSize() + 1);
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/employees", exchange -> handle(exchange, "employees", () -> rosterResponse));
+        server.createContext("/employee/", exchange -> handle(exchange, "employee", () -> employeeResponse(lastSegment(exchange))));
+        server.createContext("/create", exchange -> handle(exchange, "create", this::createResponse));
+        server.createContext("/delete/", exchange -> handle(exchange, "delete", () -> deleteResponse(lastSegment(exchange))));
+        server.setExecutor(executor);
+        server.start();
+        log.info("Employee API stub listening on {}", getBaseUrl());
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public Map<String, LongAdder> getCallCounts() {
+        return callCounts;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange, String endpoint, ResponseBody responseBody) throws IOException {
+        try (exchange) {
+            callCounts.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+            exchange.getRequestBody().readAllBytes();
+
+            if (settings.getLatencyMillis() > 0) {
+                Thread.sleep(settings.getLatencyMillis());
+            }
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < settings.getThrottleRate()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+            if (roll < settings.getThrottleRate() + settings.getErrorRate()) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            byte[] body = responseBody.get();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] employeeResponse(String id) {
+        int employeeId = parseId(id);
+        if (employeeId < 1 || employeeId > settings.getRosterSize()) {
+            return json("{\"status\":\"success\",\"data\":null,\"message\":\"Successfully! Record has been fetched.\"}");
+        }
+        return json("{\"status\":\"success\",\"data\":" + employee(employeeId, new SplittableRandom(employeeId))
+                + ",\"message\":\"Successfully! Record has been fetched.\"}");
+    }
+
+    private byte[] createResponse() {
+        return json("{\"status\":\"success\",\"data\":{\"name\":\"Load Tester\",\"salary\":35000,\"age\":35,\"id\":"
+                + nextId.getAndIncrement() + "},\"message\":\"Successfully! Record has been added.\"}");
+    }
+
+    private static byte[] deleteResponse(String id) {
+        return json("{\"status\":\"success\",\"data\":\"" + id + "\",\"message\":\"Successfully! Record has been deleted\"}");
+    }
+
+    private static byte[] rosterResponse(int rosterSize) {
+        StringBuilder response = new StringBuilder(rosterSize * 110).append("{\"status\":\"success\",\"data\":[");
+        for (int id = 1; id <= rosterSize; id++) {
+            if (id > 1) {
+                response.append(',');
+            }
+            response.append(employee(id, new SplittableRandom(id)));
+        }
+        return json(response.append("],\"message\":\"Successfully! All records has been fetched.\"}").toString());
+    }
+
+    private static String employee(int id, SplittableRandom random) {
+        return "{\"id\":" + id + ",\"employee_name\":\"Employee " + id + "\",\"employee_salary\":"
+                + random.nextInt(20_000, 500_000) + ",\"employee_age\":" + random.nextInt(18, 70) + ",\"profile_image\":\"\"}";
+    }
+
+    private static String lastSegment(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static int parseId(String id) {
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static byte[] json(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface ResponseBody {
+        byte[] get();
+    }
+}
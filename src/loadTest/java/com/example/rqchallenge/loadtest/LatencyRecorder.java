@@ -0,0 +1,56 @@
+package com.example.rqchallenge.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the latency of every request made by one worker thread; recorders are merged once the run is over
+ */
+class LatencyRecorder {
+    private long[] latencies = new long[1 << 12];
+    private int size;
+    private long failures;
+
+    void record(long latencyNanos, boolean success) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = latencyNanos;
+        if (!success) {
+            failures++;
+        }
+    }
+
+    static Summary summarize(Iterable<LatencyRecorder> recorders, long elapsedNanos) {
+        int total = 0;
+        long failures = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.size;
+            failures += recorder.failures;
+        }
+
+        long[] merged = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, merged, offset, recorder.size);
+            offset += recorder.size;
+        }
+        Arrays.sort(merged);
+
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        return new Summary(total, failures, total / seconds,
+                percentile(merged, 0.5), percentile(merged, 0.99), percentile(merged, 0.999),
+                merged.length == 0 ? 0 : merged[merged.length - 1]);
+    }
+
+    private static long percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)];
+    }
+
+    record Summary(int requests, long failures, double throughput, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+    }
+}
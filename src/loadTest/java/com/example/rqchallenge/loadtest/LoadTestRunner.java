@@ -0,0 +1,168 @@
+package com.example.rqchallenge.loadtest;
+
+import com.example.rqchallenge.RqChallengeApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Boots the application against the employee API stub and drives each endpoint in turn at the configured
+ * concurrency, then reports throughput, latency percentiles and the number of upstream calls per scenario.
+ * Run with ./gradlew loadTest, e.g. -Dloadtest.concurrency=64 -Dloadtest.stub.throttle-rate=0.05
+ */
+public class LoadTestRunner {
+    private static final String JSON = "application/json";
+
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public LoadTestRunner(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner(LoadTestSettings.fromSystemProperties()).run();
+    }
+
+    public void run() throws Exception {
+        try (EmployeeApiStub stub = new EmployeeApiStub(settings)) {
+            stub.start();
+
+            Map<String, Object> applicationProperties = new HashMap<>();
+            applicationProperties.put("server.port", "0");
+            applicationProperties.put("employee.api.url", stub.getBaseUrl());
+            applicationProperties.put("logging.level.com.example.rqchallenge", "WARN");
+            applicationProperties.putAll(settings.getApplicationProperties());
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RqChallengeApplication.class)
+                    .properties(applicationProperties)
+                    .run()) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/employees";
+
+                System.out.printf("%-36s %10s %9s %10s %9s %9s %9s %9s  %s%n",
+                        "scenario", "requests", "failures", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "upstream calls");
+
+                for (Map.Entry<String, IntFunction<HttpRequest>> scenario : scenarios(baseUrl).entrySet()) {
+                    if (!settings.getScenarios().isEmpty() && !settings.getScenarios().contains(scenario.getKey())) {
+                        continue;
+                    }
+
+                    drive(scenario.getValue(), settings.getWarmupSeconds());
+                    Map<String, Long> callsBefore = snapshot(stub.getCallCounts());
+                    long start = System.nanoTime();
+                    List<LatencyRecorder> recorders = drive(scenario.getValue(), settings.getDurationSeconds());
+                    LatencyRecorder.Summary summary = LatencyRecorder.summarize(recorders, System.nanoTime() - start);
+
+                    System.out.printf("%-36s %10d %9d %10.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                            scenario.getKey(), summary.requests(), summary.failures(), summary.throughput(),
+                            millis(summary.p50Nanos()), millis(summary.p99Nanos()), millis(summary.p999Nanos()),
+                            millis(summary.maxNanos()), delta(callsBefore, snapshot(stub.getCallCounts())));
+                }
+            }
+        }
+    }
+
+    private Map<String, IntFunction<HttpRequest>> scenarios(String baseUrl) {
+        int rosterSize = settings.getRosterSize();
+        Map<String, IntFunction<HttpRequest>> scenarios = new LinkedHashMap<>();
+
+        scenarios.put("getAllEmployees", i -> get(baseUrl));
+        scenarios.put("getAllEmployees page", i -> get(baseUrl + "?offset=" + (i % rosterSize) + "&limit=100"));
+        scenarios.put("streamAllEmployees", i -> get(baseUrl + "/stream?fields=id,employeeName"));
+        scenarios.put("getEmployeesByNameSearch", i -> get(baseUrl + "/search/" + (i % rosterSize + 1)));
+        scenarios.put("getEmployeeById", i -> get(baseUrl + "/" + (i % rosterSize + 1)));
+        scenarios.put("getEmployeesByIds", i -> get(baseUrl + "/batch?ids=" + (i % rosterSize + 1) + "," + ((i + 7) % rosterSize + 1)));
+        scenarios.put("getHighestSalaryOfEmployees", i -> get(baseUrl + "/highestSalary"));
+        scenarios.put("getTopTenHighestEarningEmployeeNames", i -> get(baseUrl + "/topTenHighestEarningEmployeeNames"));
+        scenarios.put("getTopHighestEarningEmployeeNames", i -> get(baseUrl + "/top?k=50"));
+        scenarios.put("createEmployee", i -> post(baseUrl, "{\"name\":\"Load Tester\",\"salary\":35000,\"age\":35}"));
+        scenarios.put("createEmployees", i -> post(baseUrl + "/bulk",
+                "[{\"name\":\"Load Tester\",\"salary\":35000,\"age\":35},{\"name\":\"Load Tester\",\"salary\":36000,\"age\":36}]"));
+        scenarios.put("deleteEmployeeById", i -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + (i % rosterSize + 1))).DELETE().build());
+        return scenarios;
+    }
+
+    private List<LatencyRecorder> drive(IntFunction<HttpRequest> requestFactory, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getConcurrency());
+
+        try {
+            List<Future<LatencyRecorder>> workers = new ArrayList<>();
+            for (int worker = 0; worker < settings.getConcurrency(); worker++) {
+                int firstIteration = worker;
+                workers.add(executor.submit(() -> {
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    for (int i = firstIteration; System.nanoTime() < deadline; i += settings.getConcurrency()) {
+                        long start = System.nanoTime();
+                        boolean success;
+                        try {
+                            HttpResponse<Void> response = httpClient.send(requestFactory.apply(i), HttpResponse.BodyHandlers.discarding());
+                            success = response.statusCode() < 300;
+                        } catch (IOException e) {
+                            success = false;
+                        }
+                        recorder.record(System.nanoTime() - start, success);
+                    }
+                    return recorder;
+                }));
+            }
+
+            List<LatencyRecorder> recorders = new ArrayList<>();
+            for (Future<LatencyRecorder> worker : workers) {
+                recorders.add(worker.get());
+            }
+            return recorders;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> callCounts) {
+        Map<String, Long> snapshot = new HashMap<>();
+        callCounts.forEach((endpoint, count) -> snapshot.put(endpoint, count.sum()));
+        return snapshot;
+    }
+
+    private static Map<String, Long> delta(Map<String, Long> before, Map<String, Long> after) {
+        Map<String, Long> delta = new LinkedHashMap<>();
+        after.forEach((endpoint, count) -> {
+            long calls = count - before.getOrDefault(endpoint, 0L);
+            if (calls > 0) {
+                delta.put(endpoint, calls);
+            }
+        });
+        return delta;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
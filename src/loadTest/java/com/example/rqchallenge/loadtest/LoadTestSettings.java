@@ -0,0 +1,50 @@
+package com.example.rqchallenge.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Load test and stub settings, read from loadtest.* system properties.
+ * Properties starting with loadtest.app. are passed to the application, e.g.
+ * -Dloadtest.app.employee.upstream.rate.max-per-second=500
+ */
+@Getter
+@Builder
+public class LoadTestSettings {
+    private static final String APP_PREFIX = "loadtest.app.";
+
+    private final int concurrency;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int rosterSize;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final double throttleRate;
+    private final List<String> scenarios;
+    private final Map<String, String> applicationProperties;
+
+    public static LoadTestSettings fromSystemProperties() {
+        Properties properties = System.getProperties();
+        String scenarios = properties.getProperty("loadtest.scenarios", "");
+
+        return LoadTestSettings.builder()
+                .concurrency(Integer.parseInt(properties.getProperty("loadtest.concurrency", "32")))
+                .durationSeconds(Integer.parseInt(properties.getProperty("loadtest.duration-seconds", "20")))
+                .warmupSeconds(Integer.parseInt(properties.getProperty("loadtest.warmup-seconds", "5")))
+                .rosterSize(Integer.parseInt(properties.getProperty("loadtest.stub.roster-size", "10000")))
+                .latencyMillis(Long.parseLong(properties.getProperty("loadtest.stub.latency-ms", "20")))
+                .errorRate(Double.parseDouble(properties.getProperty("loadtest.stub.error-rate", "0")))
+                .throttleRate(Double.parseDouble(properties.getProperty("loadtest.stub.throttle-rate", "0")))
+                .scenarios(scenarios.isBlank() ? List.of() : Arrays.stream(scenarios.split(",")).map(String::trim).toList())
+                .applicationProperties(properties.stringPropertyNames().stream()
+                        .filter(name -> name.startsWith(APP_PREFIX))
+                        .collect(Collectors.toMap(name -> name.substring(APP_PREFIX.length()), properties::getProperty)))
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.rqchallenge.employees;
+
+import com.example.rqchallenge.employees.models.Employee;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+public interface IAsyncEmployeeController {
+
+    @GetMapping()
+    CompletableFuture<ResponseEntity<List<Employee>>> getAllEmployees();
+
+    @GetMapping("/search/{searchString}")
+    CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString,
+                                                                               @RequestParam(defaultValue = "false") boolean ignoreCase,
+                                                                               @RequestParam(defaultValue = "false") boolean prefix,
+                                                                               @RequestParam(required = false) Integer limit);
+
+    @GetMapping("/{id}")
+    CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id);
+
+    @GetMapping("/highestSalary")
+    CompletableFuture<ResponseEntity<Integer>> getHighestSalaryOfEmployees();
+
+    @GetMapping("/topTenHighestEarningEmployeeNames")
+    CompletableFuture<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames();
+
+    @GetMapping("/top")
+    CompletableFuture<ResponseEntity<List<String>>> getTopHighestEarningEmployeeNames(@RequestParam(defaultValue = "10") int k);
+
+    @PostMapping()
+    CompletableFuture<ResponseEntity<Employee>> createEmployee(@RequestBody Map<String, Object> employeeInput);
+
+    @DeleteMapping("/{id}")
+    CompletableFuture<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id);
+
+}
@@ -1,8 +1,13 @@
 package com.example.rqchallenge.employees;
 
+import com.example.rqchallenge.employees.models.BulkOperationResult;
 import com.example.rqchallenge.employees.models.Employee;
+import com.example.rqchallenge.employees.models.EmployeeAnalytics;
+import com.example.rqchallenge.employees.models.EmployeeLookupResult;
+import com.example.rqchallenge.employees.models.UpstreamStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -13,23 +18,64 @@ import java.util.Map;
 public interface IEmployeeController {
 
     @GetMapping()
-    ResponseEntity<List<Employee>> getAllEmployees() throws IOException, URISyntaxException;
+    ResponseEntity<List<Employee>> getAllEmployees(@RequestParam(defaultValue = "0") int offset,
+                                                   @RequestParam(required = false) Integer limit)
+            throws IOException, URISyntaxException;
+
+    @GetMapping(params = "fields")
+    ResponseEntity<List<Map<String, Object>>> getAllEmployeeFields(@RequestParam(defaultValue = "0") int offset,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   @RequestParam String fields)
+            throws IOException, URISyntaxException;
+
+    @GetMapping("/stream")
+    ResponseEntity<StreamingResponseBody> streamAllEmployees(@RequestParam(defaultValue = "0") int offset,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String fields,
+                                                             @RequestParam(defaultValue = "ndjson") String format)
+            throws IOException, URISyntaxException;
 
     @GetMapping("/search/{searchString}")
-    ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString) throws URISyntaxException, IOException;
+    ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString,
+                                                            @RequestParam(defaultValue = "false") boolean ignoreCase,
+                                                            @RequestParam(defaultValue = "false") boolean prefix,
+                                                            @RequestParam(required = false) Integer limit)
+            throws URISyntaxException, IOException;
 
     @GetMapping("/{id}")
     ResponseEntity<Employee> getEmployeeById(@PathVariable String id) throws URISyntaxException, IOException;
 
+    @GetMapping("/batch")
+    ResponseEntity<List<EmployeeLookupResult>> getEmployeesByIds(@RequestParam List<String> ids);
+
+    @PostMapping("/batch")
+    ResponseEntity<List<EmployeeLookupResult>> getEmployeesByIdList(@RequestBody List<String> ids);
+
     @GetMapping("/highestSalary")
     ResponseEntity<Integer> getHighestSalaryOfEmployees() throws URISyntaxException, IOException;
 
     @GetMapping("/topTenHighestEarningEmployeeNames")
     ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames() throws URISyntaxException, IOException;
 
+    @GetMapping("/top")
+    ResponseEntity<List<String>> getTopHighestEarningEmployeeNames(@RequestParam(defaultValue = "10") int k)
+            throws URISyntaxException, IOException;
+
+    @GetMapping("/analytics")
+    ResponseEntity<EmployeeAnalytics> getAnalytics() throws URISyntaxException, IOException;
+
+    @GetMapping("/upstreamStatus")
+    ResponseEntity<UpstreamStatus> getUpstreamStatus();
+
     @PostMapping()
     ResponseEntity<Employee> createEmployee(@RequestBody Map<String, Object> employeeInput) throws URISyntaxException, IOException;
 
+    @PostMapping("/bulk")
+    ResponseEntity<List<BulkOperationResult>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs);
+
+    @DeleteMapping("/bulk")
+    ResponseEntity<List<BulkOperationResult>> deleteEmployeesByIds(@RequestBody List<String> ids);
+
     @DeleteMapping("/{id}")
     ResponseEntity<String> deleteEmployeeById(@PathVariable String id) throws URISyntaxException, IOException;
 
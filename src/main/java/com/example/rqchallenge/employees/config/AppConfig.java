@@ -1,15 +1,122 @@
 package com.example.rqchallenge.employees.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class AppConfig {
 
+    @Value("${employee.http.pool.max-total:200}")
+    private int maxTotalConnections;
+
+    @Value("${employee.http.pool.max-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${employee.http.pool.validate-after-inactivity-ms:2000}")
+    private int validateAfterInactivityMillis;
+
+    @Value("${employee.http.pool.idle-eviction-ms:30000}")
+    private long idleEvictionMillis;
+
+    @Value("${employee.http.keep-alive-ms:30000}")
+    private long keepAliveMillis;
+
+    @Value("${employee.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMillis;
+
+    @Value("${employee.http.connection-request-timeout-ms:1000}")
+    private int connectionRequestTimeoutMillis;
+
+    @Value("${employee.http.socket-timeout-ms:5000}")
+    private int socketTimeoutMillis;
+
+    @Value("${employee.http.async.io-threads:2}")
+    private int asyncIoThreads;
+
+    @Bean
+    public PoolingHttpClientConnectionManager getPoolingHttpClientConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotalConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMillis);
+        return connectionManager;
+    }
+
+    /**
+     * Publishes leased, available and pending connection gauges for the blocking client pool
+     */
+    @Bean
+    public MeterBinder getConnectionPoolMetricsBinder(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "employee-api");
+    }
+
+    /**
+     * Content compression is left enabled, so requests advertise gzip and deflate and compressed
+     * responses are decompressed transparently
+     */
+    @Bean
+    public CloseableHttpClient getCloseableHttpClient(PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(getRequestConfig())
+                .setKeepAliveStrategy(getKeepAliveStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictionMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Non-blocking client used by the asynchronous endpoints - a small, fixed number of I/O threads
+     * multiplexes every in-flight upstream call
+     */
     @Bean
-    public CloseableHttpClient getCloseableHttpClient() {
-        return HttpClients.createDefault();
+    public CloseableHttpAsyncClient getCloseableHttpAsyncClient() {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(asyncIoThreads)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSoTimeout(socketTimeoutMillis)
+                .build();
+
+        CloseableHttpAsyncClient closeableHttpAsyncClient = HttpAsyncClients.custom()
+                .setMaxConnTotal(maxTotalConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultRequestConfig(getRequestConfig())
+                .setDefaultIOReactorConfig(ioReactorConfig)
+                .setKeepAliveStrategy(getKeepAliveStrategy())
+                .build();
+        closeableHttpAsyncClient.start();
+        return closeableHttpAsyncClient;
+    }
+
+    private RequestConfig getRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMillis)
+                .setSocketTimeout(socketTimeoutMillis)
+                .build();
+    }
+
+    /**
+     * Honors the Keep-Alive header sent by the upstream and falls back to the configured duration
+     */
+    private ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+        return (response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? keepAlive : keepAliveMillis;
+        };
     }
 }
@@ -7,4 +7,6 @@ public class Constants {
     public static final String EMPLOYEE_PATH = "/employee";
     public static final String CREATE_EMPLOYEE_PATH = "/create";
     public static final String DELETE_EMPLOYEE_PATH = "/delete";
+
+    public static final String STALE_DATA_HEADER = "X-Employee-Data-Stale";
 }
@@ -0,0 +1,30 @@
+package com.example.rqchallenge.employees.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings of the employee responses, selected by the Accept header -
+ * application/x-jackson-smile or application/cbor instead of JSON.
+ * Both reuse the application's Jackson settings so field names match the JSON responses.
+ */
+@Configuration
+public class WebConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter getSmileHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder
+                .factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter getCborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapperBuilder
+                .factory(new CBORFactory()).build());
+    }
+}
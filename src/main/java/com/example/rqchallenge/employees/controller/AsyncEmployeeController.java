@@ -0,0 +1,142 @@
+package com.example.rqchallenge.employees.controller;
+
+import com.example.rqchallenge.employees.IAsyncEmployeeController;
+import com.example.rqchallenge.employees.models.Employee;
+import com.example.rqchallenge.employees.service.EmployeeAsyncService;
+import com.example.rqchallenge.employees.service.EmployeeRoster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static com.example.rqchallenge.employees.config.Constants.STALE_DATA_HEADER;
+
+/**
+ * Asynchronous mode of the employee endpoints.
+ * Each method returns as soon as the upstream call is started and the servlet thread is released;
+ * the response is written when the future completes, and failures go through AppExceptionHandler.
+ * Responses read from a roster that could not be reloaded, or an employee by ID taken from it after a failed
+ * lookup, are marked stale with a response header.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/employees/async")
+public class AsyncEmployeeController implements IAsyncEmployeeController {
+    private final EmployeeAsyncService employeeAsyncService;
+
+    /**
+     * This should return all employees
+     *
+     * @return list of employees
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<List<Employee>>> getAllEmployees() {
+        return fromRoster(EmployeeRoster::getEmployees);
+    }
+
+    /**
+     * This should return all employees whose name contains or matches the string input provided
+     *
+     * @param searchString searchString
+     * @param ignoreCase whether the match is case-insensitive
+     * @param prefix whether the name must start with the search string
+     * @param limit maximum number of employees returned
+     * @return list of employees
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(String searchString, boolean ignoreCase,
+                                                                                      boolean prefix, Integer limit) {
+        return fromRoster(roster -> employeeAsyncService.getEmployeesByName(roster, searchString, ignoreCase, prefix, limit));
+    }
+
+    /**
+     * This should return a single employee
+     * An EmployeeNotFoundException will be thrown if the user is not found
+     *
+     * @param id Employee ID
+     * @return employee response
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(String id) {
+        return employeeAsyncService.getEmployeeById(id)
+                .thenApply(lookup -> withStaleHeader(lookup.stale(), lookup.employee()));
+    }
+
+    /**
+     * This should return a single integer indicating the highest salary of all employees
+     *
+     * @return integer of the highest salary
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<Integer>> getHighestSalaryOfEmployees() {
+        return fromRoster(employeeAsyncService::getHighestSalaryOfEmployees);
+    }
+
+    /**
+     * This should return a list of the top 10 employees based off of their salaries
+     *
+     * @return list of employees
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames() {
+        return fromRoster(roster -> employeeAsyncService.getTopHighestEarningEmployeeNames(roster, 10));
+    }
+
+    /**
+     * This should return the names of the k highest earning employees, highest first
+     *
+     * @param k number of employees
+     * @return list of employee names
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<List<String>>> getTopHighestEarningEmployeeNames(int k) {
+        return fromRoster(roster -> employeeAsyncService.getTopHighestEarningEmployeeNames(roster, k));
+    }
+
+    /**
+     * This should return a status of success or failed based on if an employee was created
+     *
+     * @param employeeInput employee request object
+     * @return the employee that was created
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<Employee>> createEmployee(Map<String, Object> employeeInput) {
+        return employeeAsyncService.createEmployee(employeeInput)
+                .thenApply(employee -> new ResponseEntity<>(employee, HttpStatus.CREATED));
+    }
+
+    /**
+     * This should delete the employee with specified id given
+     *
+     * @param id Employee ID
+     * @return id of the user deleted
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<String>> deleteEmployeeById(String id) {
+        return employeeAsyncService.deleteEmployeeById(id).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Reads the roster once and derives the response from it, so the stale header describes the roster actually served
+     */
+    private <T> CompletableFuture<ResponseEntity<T>> fromRoster(Function<EmployeeRoster, T> read) {
+        return employeeAsyncService.getRoster()
+                .thenApply(roster -> withStaleHeader(employeeAsyncService.isRosterExpired(roster), read.apply(roster)));
+    }
+
+    /**
+     * The stale header is set on the entity, as the request thread has moved on by the time the future completes
+     */
+    private static <T> ResponseEntity<T> withStaleHeader(boolean stale, T body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (stale) {
+            builder.header(STALE_DATA_HEADER, "true");
+        }
+        return builder.body(body);
+    }
+}
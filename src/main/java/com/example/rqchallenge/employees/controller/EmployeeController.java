@@ -1,48 +1,135 @@
 package com.example.rqchallenge.employees.controller;
 
 import com.example.rqchallenge.employees.IEmployeeController;
+import com.example.rqchallenge.employees.exception.InvalidEmployeeQueryException;
+import com.example.rqchallenge.employees.models.BulkOperationResult;
 import com.example.rqchallenge.employees.models.Employee;
+import com.example.rqchallenge.employees.models.EmployeeAnalytics;
+import com.example.rqchallenge.employees.models.EmployeeField;
+import com.example.rqchallenge.employees.models.EmployeeLookupResult;
+import com.example.rqchallenge.employees.models.UpstreamStatus;
+import com.example.rqchallenge.employees.service.EmployeeBatchService;
+import com.example.rqchallenge.employees.service.EmployeeBulkService;
+import com.example.rqchallenge.employees.service.EmployeeRoster;
 import com.example.rqchallenge.employees.service.EmployeeService;
+import com.example.rqchallenge.employees.service.EmployeeStreamWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/employees")
 public class EmployeeController implements IEmployeeController {
+    private static final String NDJSON_FORMAT = "ndjson";
+    private static final String JSON_FORMAT = "json";
+    private static final MediaType NDJSON_MEDIA_TYPE = MediaType.parseMediaType("application/x-ndjson");
+
     private final EmployeeService employeeService;
+    private final EmployeeBatchService employeeBatchService;
+    private final EmployeeBulkService employeeBulkService;
+    private final EmployeeStreamWriter employeeStreamWriter;
+
+    @Value("${employee.http.cache-control.max-age-seconds:0}")
+    private long cacheMaxAgeSeconds;
 
     /**
-     * This should return all employees
+     * This should return all employees, optionally one page at a time
      *
+     * @param offset index of the first employee returned
+     * @param limit maximum number of employees returned
      * @return list of employees
      * @throws IOException IOException
      * @throws URISyntaxException URISyntaxException
      */
     @Override
-    public ResponseEntity<List<Employee>> getAllEmployees() throws IOException, URISyntaxException {
-        return ResponseEntity.ok(employeeService.getAllEmployees());
+    public ResponseEntity<List<Employee>> getAllEmployees(int offset, Integer limit) throws IOException, URISyntaxException {
+        EmployeeRoster roster = employeeService.getRoster();
+        return withRosterETag(roster, employeeService.getEmployeesPage(roster, offset, limit));
+    }
+
+    /**
+     * This should return all employees with only the requested fields, optionally one page at a time
+     *
+     * @param offset index of the first employee returned
+     * @param limit maximum number of employees returned
+     * @param fields comma separated field names, e.g. id,employeeName; every field if blank
+     * @return list of employees with the selected fields
+     * @throws IOException IOException
+     * @throws URISyntaxException URISyntaxException
+     */
+    @Override
+    public ResponseEntity<List<Map<String, Object>>> getAllEmployeeFields(int offset, Integer limit, String fields)
+            throws IOException, URISyntaxException {
+        Set<EmployeeField> selectedFields = parseFields(fields);
+        EmployeeRoster roster = employeeService.getRoster();
+        return withRosterETag(roster, employeeService.getEmployeesPage(roster, offset, limit).stream()
+                .map(employee -> EmployeeField.project(employee, selectedFields))
+                .toList());
+    }
+
+    /**
+     * This should stream all employees as newline delimited JSON or as a chunked JSON array,
+     * with only the requested fields
+     *
+     * @param offset index of the first employee returned
+     * @param limit maximum number of employees returned
+     * @param fields comma separated field names, e.g. id,employeeName
+     * @param format ndjson or json
+     * @return streamed employees
+     * @throws IOException IOException
+     * @throws URISyntaxException URISyntaxException
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees(int offset, Integer limit, String fields, String format)
+            throws IOException, URISyntaxException {
+        Set<EmployeeField> selectedFields = parseFields(fields);
+        List<Employee> employees = employeeService.getEmployeesPage(offset, limit);
+
+        if (NDJSON_FORMAT.equals(format)) {
+            return ResponseEntity.ok()
+                    .contentType(NDJSON_MEDIA_TYPE)
+                    .body(outputStream -> employeeStreamWriter.writeNdjson(employees, selectedFields, outputStream));
+        }
+
+        if (JSON_FORMAT.equals(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> employeeStreamWriter.writeJsonArray(employees, selectedFields, outputStream));
+        }
+
+        throw new InvalidEmployeeQueryException(String.format("Unknown format [%s]", format));
     }
 
     /**
      * This should return all employees whose name contains or matches the string input provided
      *
      * @param searchString searchString
+     * @param ignoreCase whether the match is case-insensitive
+     * @param prefix whether the name must start with the search string
+     * @param limit maximum number of employees returned
      * @return list of employees
      * @throws URISyntaxException URISyntaxException
      * @throws IOException IOException
      */
     @Override
-    public ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString)
+    public ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString, boolean ignoreCase,
+                                                                   boolean prefix, Integer limit)
             throws URISyntaxException, IOException {
-        return ResponseEntity.ok(employeeService.getEmployeesByName(searchString));
+        EmployeeRoster roster = employeeService.getRoster();
+        return withRosterETag(roster, employeeService.getEmployeesByName(roster, searchString, ignoreCase, prefix, limit));
     }
 
     /**
@@ -59,6 +146,28 @@ public class EmployeeController implements IEmployeeController {
         return ResponseEntity.ok(employeeService.getEmployeeById(id));
     }
 
+    /**
+     * This should return the employees for a comma separated list of IDs, with a result per ID
+     *
+     * @param ids Employee IDs
+     * @return list of lookup results in request order
+     */
+    @Override
+    public ResponseEntity<List<EmployeeLookupResult>> getEmployeesByIds(List<String> ids) {
+        return ResponseEntity.ok(employeeBatchService.getEmployeesByIds(ids));
+    }
+
+    /**
+     * This should return the employees for the list of IDs in the request body, with a result per ID
+     *
+     * @param ids Employee IDs
+     * @return list of lookup results in request order
+     */
+    @Override
+    public ResponseEntity<List<EmployeeLookupResult>> getEmployeesByIdList(List<String> ids) {
+        return ResponseEntity.ok(employeeBatchService.getEmployeesByIds(ids));
+    }
+
     /**
      * This should return a single integer indicating the highest salary of all employees
      *
@@ -68,7 +177,8 @@ public class EmployeeController implements IEmployeeController {
      */
     @Override
     public ResponseEntity<Integer> getHighestSalaryOfEmployees() throws URISyntaxException, IOException {
-        return ResponseEntity.ok(employeeService.getHighestSalaryOfEmployees());
+        EmployeeRoster roster = employeeService.getRoster();
+        return withRosterETag(roster, employeeService.getHighestSalaryOfEmployees(roster));
     }
 
     /**
@@ -80,7 +190,45 @@ public class EmployeeController implements IEmployeeController {
      */
     @Override
     public ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames() throws URISyntaxException, IOException {
-        return new ResponseEntity<>(employeeService.getTopTenHighestEarningEmployeeNames(), HttpStatus.OK);
+        EmployeeRoster roster = employeeService.getRoster();
+        return withRosterETag(roster, employeeService.getTopHighestEarningEmployeeNames(roster, 10));
+    }
+
+    /**
+     * This should return the names of the k highest earning employees, highest first
+     *
+     * @param k number of employees
+     * @return list of employee names
+     * @throws URISyntaxException URISyntaxException
+     * @throws IOException IOException
+     */
+    @Override
+    public ResponseEntity<List<String>> getTopHighestEarningEmployeeNames(int k) throws URISyntaxException, IOException {
+        EmployeeRoster roster = employeeService.getRoster();
+        return withRosterETag(roster, employeeService.getTopHighestEarningEmployeeNames(roster, k));
+    }
+
+    /**
+     * This should return salary statistics, percentiles, a salary histogram and age bands of all employees
+     *
+     * @return employee analytics
+     * @throws URISyntaxException URISyntaxException
+     * @throws IOException IOException
+     */
+    @Override
+    public ResponseEntity<EmployeeAnalytics> getAnalytics() throws URISyntaxException, IOException {
+        EmployeeRoster roster = employeeService.getRoster();
+        return withRosterETag(roster, employeeService.getAnalytics(roster));
+    }
+
+    /**
+     * This should return the circuit breaker state and throttling counters of the employee API
+     *
+     * @return upstream status
+     */
+    @Override
+    public ResponseEntity<UpstreamStatus> getUpstreamStatus() {
+        return ResponseEntity.ok(employeeService.getUpstreamStatus());
     }
 
     /**
@@ -96,6 +244,28 @@ public class EmployeeController implements IEmployeeController {
         return new ResponseEntity<>(employeeService.createEmployee(employeeInput), HttpStatus.CREATED);
     }
 
+    /**
+     * This should create every employee in the list and report the outcome of each one
+     *
+     * @param employeeInputs employee request objects
+     * @return list of results in request order
+     */
+    @Override
+    public ResponseEntity<List<BulkOperationResult>> createEmployees(List<Map<String, Object>> employeeInputs) {
+        return ResponseEntity.ok(employeeBulkService.createEmployees(employeeInputs));
+    }
+
+    /**
+     * This should delete every employee in the list and report the outcome of each one
+     *
+     * @param ids Employee IDs
+     * @return list of results in request order
+     */
+    @Override
+    public ResponseEntity<List<BulkOperationResult>> deleteEmployeesByIds(List<String> ids) {
+        return ResponseEntity.ok(employeeBulkService.deleteEmployeesByIds(ids));
+    }
+
     /**
      * This should delete the employee with specified id given
      *
@@ -108,4 +278,23 @@ public class EmployeeController implements IEmployeeController {
     public ResponseEntity<String> deleteEmployeeById(String id) throws URISyntaxException, IOException {
         return new ResponseEntity<>(employeeService.deleteEmployeeById(id), HttpStatus.OK);
     }
+
+    private static Set<EmployeeField> parseFields(String fields) {
+        try {
+            return EmployeeField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEmployeeQueryException(e.getMessage());
+        }
+    }
+
+    /**
+     * Responses derived from the roster carry a weak ETag of the roster content, so a request whose If-None-Match
+     * matches gets a 304 without a body. The tag and the body are both taken from the one roster read for the request.
+     */
+    private <T> ResponseEntity<T> withRosterETag(EmployeeRoster roster, T body) {
+        return ResponseEntity.ok()
+                .eTag(String.format("W/\"%x\"", roster.getFingerprint()))
+                .cacheControl(CacheControl.maxAge(cacheMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate().mustRevalidate())
+                .body(body);
+    }
 }
@@ -1,12 +1,16 @@
 package com.example.rqchallenge.employees.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 
 @Slf4j
 @ControllerAdvice
@@ -36,4 +40,27 @@ public class AppExceptionHandler extends ResponseEntityExceptionHandler {
     protected ResponseEntity<Object> handleEmployeeDeleteException(RuntimeException runtimeException) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error deleting an Employee.");
     }
+
+    @ExceptionHandler(value = {TimeoutException.class})
+    protected ResponseEntity<Object> handleTimeoutException(Exception exception) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("The employee API did not respond in time.");
+    }
+
+    @ExceptionHandler(value = {UpstreamUnavailableException.class})
+    protected ResponseEntity<Object> handleUpstreamUnavailableException(UpstreamUnavailableException upstreamUnavailableException) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(upstreamUnavailableException.getRetryAfterMillis()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("The employee API is temporarily unavailable.");
+    }
+
+    @ExceptionHandler(value = {InvalidEmployeeQueryException.class})
+    protected ResponseEntity<Object> handleInvalidEmployeeQueryException(RuntimeException runtimeException) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(runtimeException.getMessage());
+    }
+
+    @ExceptionHandler(value = {BulkRequestException.class})
+    protected ResponseEntity<Object> handleBulkRequestException(RuntimeException runtimeException) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(runtimeException.getMessage());
+    }
 }
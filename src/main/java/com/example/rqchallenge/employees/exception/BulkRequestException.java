@@ -0,0 +1,7 @@
+package com.example.rqchallenge.employees.exception;
+
+public class BulkRequestException extends RuntimeException {
+    public BulkRequestException(String message) {
+        super(message);
+    }
+}
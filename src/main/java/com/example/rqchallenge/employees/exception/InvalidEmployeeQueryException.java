@@ -0,0 +1,7 @@
+package com.example.rqchallenge.employees.exception;
+
+public class InvalidEmployeeQueryException extends RuntimeException {
+    public InvalidEmployeeQueryException(String message) {
+        super(message);
+    }
+}
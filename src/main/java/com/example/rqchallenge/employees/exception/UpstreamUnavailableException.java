@@ -0,0 +1,18 @@
+package com.example.rqchallenge.employees.exception;
+
+/**
+ * Thrown without calling the employee API while its circuit breaker is open, while it has asked us to back off,
+ * or when the local request rate limit is exhausted
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+    private final long retryAfterMillis;
+
+    public UpstreamUnavailableException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.rqchallenge.employees.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResult {
+    private int index;
+    private String id;
+    private Status status;
+    private Employee employee;
+    private String error;
+
+    public enum Status {
+        SUCCEEDED,
+        FAILED
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.rqchallenge.employees.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeAnalytics {
+    private long rosterVersion;
+    private int count;
+    private Integer minSalary;
+    private Integer maxSalary;
+    private Double meanSalary;
+    private Map<String, Integer> salaryPercentiles;
+    private List<EmployeeCountBucket> salaryHistogram;
+    private Integer minAge;
+    private Integer maxAge;
+    private Double meanAge;
+    private List<EmployeeCountBucket> ageBands;
+}
@@ -0,0 +1,19 @@
+package com.example.rqchallenge.employees.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of employees with a value from {@code from} inclusive to {@code to} exclusive; a null bound is open
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeCountBucket {
+    private Integer from;
+    private Integer to;
+    private long count;
+}
@@ -0,0 +1,70 @@
+package com.example.rqchallenge.employees.models;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Employee fields that can be selected with the fields parameter
+ */
+public enum EmployeeField {
+    ID("id"),
+    EMPLOYEE_NAME("employeeName"),
+    EMPLOYEE_SALARY("employeeSalary"),
+    EMPLOYEE_AGE("employeeAge"),
+    PROFILE_IMAGE("profileImage");
+
+    private final String fieldName;
+
+    EmployeeField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Object valueOf(Employee employee) {
+        return switch (this) {
+            case ID -> employee.getId();
+            case EMPLOYEE_NAME -> employee.getEmployeeName();
+            case EMPLOYEE_SALARY -> employee.getEmployeeSalary();
+            case EMPLOYEE_AGE -> employee.getEmployeeAge();
+            case PROFILE_IMAGE -> employee.getProfileImage();
+        };
+    }
+
+    /**
+     * @return the selected fields of the employee by field name, in field order
+     */
+    public static Map<String, Object> project(Employee employee, Set<EmployeeField> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (EmployeeField field : fields) {
+            projected.put(field.fieldName, field.valueOf(employee));
+        }
+        return projected;
+    }
+
+    /**
+     * @param fields comma separated field names, or blank for every field
+     * @return the selected fields
+     * @throws IllegalArgumentException if a field name is unknown
+     */
+    public static Set<EmployeeField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(EmployeeField.class);
+        }
+
+        Set<EmployeeField> selected = EnumSet.noneOf(EmployeeField.class);
+        for (String fieldName : fields.split(",")) {
+            String trimmed = fieldName.trim();
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.fieldName.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(String.format("Unknown employee field [%s]", trimmed))));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.rqchallenge.employees.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpstreamStatus {
+    private String circuitState;
+    private long retryAfterMillis;
+    private double allowedRequestsPerSecond;
+    private long successCount;
+    private long failureCount;
+    private long throttledCount;
+    private long rejectedCount;
+    private long circuitOpenCount;
+}
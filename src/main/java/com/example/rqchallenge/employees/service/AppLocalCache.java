@@ -1,28 +1,138 @@
 package com.example.rqchallenge.employees.service;
 
 import com.example.rqchallenge.employees.models.Employee;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This cache will be used to cache employee data
+ * It is bounded by size (W-TinyLFU eviction), expires entries individually and remembers upstream
+ * "not found" results for a shorter time so repeated lookups of missing IDs do not reach the network.
  * As an improvement, a Redis cache could be implemented to replace this Local Cache
  */
 @Component
-public class AppLocalCache {
-    Map<String, Employee> employeeByIdCache = new HashMap<>();
+public class AppLocalCache implements MeterBinder {
+    private final long employeeTtlNanos;
+    private final long notFoundTtlNanos;
+    private final Cache<String, CacheEntry> employeeByIdCache;
+
+    public AppLocalCache(@Value("${employee.cache.max-size:10000}") long maxSize,
+                         @Value("${employee.cache.ttl-ms:300000}") long employeeTtlMillis,
+                         @Value("${employee.cache.not-found-ttl-ms:30000}") long notFoundTtlMillis) {
+        this.employeeTtlNanos = TimeUnit.MILLISECONDS.toNanos(employeeTtlMillis);
+        this.notFoundTtlNanos = TimeUnit.MILLISECONDS.toNanos(notFoundTtlMillis);
+        this.employeeByIdCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new CacheEntryExpiry())
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
 
     public void addToEmployeeCacheById(String employeeId, Employee employee) {
-        employeeByIdCache.put(employeeId, employee);
+        employeeByIdCache.put(employeeId, new CacheEntry(employee, employeeTtlNanos));
+    }
+
+    /**
+     * Caches an employee persisted in a snapshot for what is left of its TTL, counted from the snapshot time,
+     * or not at all if that has already passed
+     */
+    public void restoreToEmployeeCacheById(String employeeId, Employee employee, long takenAt) {
+        long remainingTtlNanos = employeeTtlNanos - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - takenAt);
+        if (remainingTtlNanos > 0) {
+            employeeByIdCache.put(employeeId, new CacheEntry(employee, remainingTtlNanos));
+        }
+    }
+
+    public void addNotFoundToEmployeeCacheById(String employeeId) {
+        employeeByIdCache.put(employeeId, new CacheEntry(null, notFoundTtlNanos));
     }
 
     public Employee getFromEmployeeCacheById(String employeeById) {
-        return employeeByIdCache.get(employeeById);
+        CacheEntry cacheEntry = employeeByIdCache.getIfPresent(employeeById);
+        return cacheEntry == null ? null : cacheEntry.employee;
+    }
+
+    public boolean isNotFoundInEmployeeCacheById(String employeeId) {
+        CacheEntry cacheEntry = employeeByIdCache.asMap().get(employeeId);
+        return cacheEntry != null && cacheEntry.employee == null;
     }
 
     public void removeFromEmployeeCacheById(String employeeId) {
-        employeeByIdCache.remove(employeeId);
+        employeeByIdCache.invalidate(employeeId);
+    }
+
+    /**
+     * Publishes hit, miss, eviction and size meters for the employee by ID cache
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, employeeByIdCache, "employeeById");
+    }
+
+    /**
+     * @return the cached employees by ID, without the not found markers
+     */
+    public Map<String, Employee> getCachedEmployees() {
+        Map<String, Employee> cachedEmployees = new HashMap<>();
+        employeeByIdCache.asMap().forEach((employeeId, cacheEntry) -> {
+            if (cacheEntry.employee != null) {
+                cachedEmployees.put(employeeId, cacheEntry.employee);
+            }
+        });
+        return cachedEmployees;
+    }
+
+    public long getEmployeeCacheSize() {
+        return employeeByIdCache.estimatedSize();
+    }
+
+    public CacheStats getEmployeeCacheStats() {
+        return employeeByIdCache.stats();
+    }
+
+    void cleanUp() {
+        employeeByIdCache.cleanUp();
+    }
+
+    /**
+     * A cached lookup result - a null employee marks an ID the upstream reported as not found
+     */
+    private static final class CacheEntry {
+        private final Employee employee;
+        private final long ttlNanos;
+
+        private CacheEntry(Employee employee, long ttlNanos) {
+            this.employee = employee;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private static final class CacheEntryExpiry implements Expiry<String, CacheEntry> {
+        @Override
+        public long expireAfterCreate(String key, CacheEntry value, long currentTime) {
+            return value.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CacheEntry value, long currentTime, long currentDuration) {
+            return value.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, CacheEntry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
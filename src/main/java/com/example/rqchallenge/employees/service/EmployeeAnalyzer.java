@@ -0,0 +1,193 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.EmployeeAnalytics;
+import com.example.rqchallenge.employees.models.EmployeeCountBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Computes salary and age statistics for a roster in a single pass over its columns.
+ * Salary minimum, maximum and percentiles are read from the salary ranking, which is already sorted;
+ * the pass accumulates the sums, the age range, the salary histogram and the age bands.
+ * Rosters of at least the parallel threshold are split across the common fork-join pool, each worker filling
+ * its own accumulator before they are merged.
+ * The result for the latest roster version is kept, so repeated calls between roster changes cost nothing.
+ */
+@Component
+public class EmployeeAnalyzer {
+    private static final int MAX_SALARY_BUCKETS = 1000;
+
+    private final int salaryBucketWidth;
+    private final int[] ageBandBounds;
+    private final double[] percentiles;
+    private final int parallelThreshold;
+
+    private final AtomicReference<Result> latest = new AtomicReference<>();
+
+    private record Result(long version, long fingerprint, EmployeeAnalytics analytics) {
+    }
+
+    public EmployeeAnalyzer(@Value("${employee.analytics.salary-bucket-width:50000}") int salaryBucketWidth,
+                            @Value("${employee.analytics.age-bands:25,35,45,55,65}") int[] ageBandBounds,
+                            @Value("${employee.analytics.percentiles:0.5,0.75,0.9,0.95,0.99}") double[] percentiles,
+                            @Value("${employee.analytics.parallel-threshold:10000}") int parallelThreshold) {
+        this.salaryBucketWidth = Math.max(1, salaryBucketWidth);
+        this.ageBandBounds = ageBandBounds.clone();
+        this.percentiles = percentiles.clone();
+        this.parallelThreshold = parallelThreshold;
+        Arrays.sort(this.ageBandBounds);
+    }
+
+    public EmployeeAnalytics analyze(EmployeeRoster roster) {
+        Result result = latest.get();
+        if (result != null && result.version() == roster.getVersion() && result.fingerprint() == roster.getFingerprint()) {
+            return result.analytics();
+        }
+
+        EmployeeAnalytics analytics = compute(roster);
+        latest.set(new Result(roster.getVersion(), roster.getFingerprint(), analytics));
+        return analytics;
+    }
+
+    private EmployeeAnalytics compute(EmployeeRoster roster) {
+        EmployeeColumns columns = roster.getColumns();
+        SalaryRanking salaryRanking = roster.getSalaryRanking();
+        int count = columns.size();
+
+        EmployeeAnalytics.EmployeeAnalyticsBuilder analytics = EmployeeAnalytics.builder()
+                .rosterVersion(roster.getVersion())
+                .count(count);
+
+        if (count == 0) {
+            return analytics
+                    .salaryPercentiles(Map.of())
+                    .salaryHistogram(List.of())
+                    .ageBands(ageBands(new long[ageBandBounds.length + 1]))
+                    .build();
+        }
+
+        int maxSalary = salaryRanking.getSalaryAt(0);
+        int minSalary = salaryRanking.getSalaryAt(count - 1);
+        long firstBucket = Math.floorDiv(minSalary, salaryBucketWidth);
+        long bucketCount = Math.floorDiv(maxSalary, salaryBucketWidth) - firstBucket + 1;
+        long bucketWidth = salaryBucketWidth;
+        if (bucketCount > MAX_SALARY_BUCKETS) {
+            bucketWidth = ((long) maxSalary - minSalary) / MAX_SALARY_BUCKETS + 1;
+            firstBucket = Math.floorDiv(minSalary, bucketWidth);
+            bucketCount = Math.floorDiv(maxSalary, bucketWidth) - firstBucket + 1;
+        }
+
+        long histogramStart = firstBucket * bucketWidth;
+        long histogramWidth = bucketWidth;
+        int histogramSize = (int) bucketCount;
+
+        IntStream rows = IntStream.range(0, count);
+        if (count >= parallelThreshold) {
+            rows = rows.parallel();
+        }
+        Accumulator totals = rows.collect(
+                () -> new Accumulator(histogramSize, ageBandBounds.length + 1),
+                (accumulator, row) -> accumulator.add(columns.getSalary(row), columns.getAge(row),
+                        histogramStart, histogramWidth, ageBandBounds),
+                Accumulator::merge);
+
+        return analytics
+                .minSalary(minSalary)
+                .maxSalary(maxSalary)
+                .meanSalary((double) totals.salarySum / count)
+                .salaryPercentiles(percentiles(salaryRanking, count))
+                .salaryHistogram(salaryHistogram(totals.salaryBuckets, histogramStart, histogramWidth))
+                .minAge(totals.minAge)
+                .maxAge(totals.maxAge)
+                .meanAge((double) totals.ageSum / count)
+                .ageBands(ageBands(totals.ageBands))
+                .build();
+    }
+
+    /**
+     * Nearest-rank percentiles, keyed as p50, p99, p99.9 and so on
+     */
+    private Map<String, Integer> percentiles(SalaryRanking salaryRanking, int count) {
+        Map<String, Integer> salaryPercentiles = new LinkedHashMap<>();
+        for (double percentile : percentiles) {
+            int ascendingIndex = (int) Math.ceil(percentile * count) - 1;
+            ascendingIndex = Math.max(0, Math.min(count - 1, ascendingIndex));
+            String key = "p" + BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros().toPlainString();
+            salaryPercentiles.put(key, salaryRanking.getSalaryAt(count - 1 - ascendingIndex));
+        }
+        return salaryPercentiles;
+    }
+
+    private static List<EmployeeCountBucket> salaryHistogram(long[] counts, long start, long width) {
+        List<EmployeeCountBucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            long from = start + i * width;
+            buckets.add(new EmployeeCountBucket(clamp(from), clamp(from + width), counts[i]));
+        }
+        return buckets;
+    }
+
+    private List<EmployeeCountBucket> ageBands(long[] counts) {
+        List<EmployeeCountBucket> bands = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            Integer from = i == 0 ? null : ageBandBounds[i - 1];
+            Integer to = i == ageBandBounds.length ? null : ageBandBounds[i];
+            bands.add(new EmployeeCountBucket(from, to, counts[i]));
+        }
+        return bands;
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Running totals of one worker's share of the rows
+     */
+    private static final class Accumulator {
+        private final long[] salaryBuckets;
+        private final long[] ageBands;
+        private long salarySum;
+        private long ageSum;
+        private int minAge = Integer.MAX_VALUE;
+        private int maxAge = Integer.MIN_VALUE;
+
+        private Accumulator(int salaryBucketCount, int ageBandCount) {
+            this.salaryBuckets = new long[salaryBucketCount];
+            this.ageBands = new long[ageBandCount];
+        }
+
+        private void add(int salary, int age, long histogramStart, long histogramWidth, int[] ageBandBounds) {
+            salarySum += salary;
+            ageSum += age;
+            minAge = Math.min(minAge, age);
+            maxAge = Math.max(maxAge, age);
+            salaryBuckets[(int) ((salary - histogramStart) / histogramWidth)]++;
+
+            int band = Arrays.binarySearch(ageBandBounds, age);
+            ageBands[band >= 0 ? band + 1 : -band - 1]++;
+        }
+
+        private void merge(Accumulator other) {
+            salarySum += other.salarySum;
+            ageSum += other.ageSum;
+            minAge = Math.min(minAge, other.minAge);
+            maxAge = Math.max(maxAge, other.maxAge);
+            for (int i = 0; i < salaryBuckets.length; i++) {
+                salaryBuckets[i] += other.salaryBuckets[i];
+            }
+            for (int i = 0; i < ageBands.length; i++) {
+                ageBands[i] += other.ageBands[i];
+            }
+        }
+    }
+}
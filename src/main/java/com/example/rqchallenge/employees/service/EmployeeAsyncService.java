@@ -0,0 +1,359 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.exception.*;
+import com.example.rqchallenge.employees.models.Employee;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static com.example.rqchallenge.employees.config.Constants.*;
+import static com.example.rqchallenge.employees.service.UpstreamMetrics.*;
+
+/**
+ * Non-blocking counterpart of EmployeeService.
+ * Upstream calls go through the async HTTP client and every method returns a CompletableFuture, so no
+ * request thread is held while waiting on the employee API. Failures complete the future with the same
+ * exceptions EmployeeService throws, and calls that exceed the configured timeout fail with a TimeoutException.
+ * Responses are decoded, and the roster published, on a small worker pool rather than on the client's I/O
+ * dispatcher threads, so a large roster does not stall every other request in flight.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeAsyncService {
+    private static final String GZIP_ENCODING = "gzip";
+
+    private final CloseableHttpAsyncClient closeableHttpAsyncClient;
+    private final ObjectMapper objectMapper;
+    private final AppLocalCache appLocalCache;
+    private final EmployeeRosterCache employeeRosterCache;
+    private final EmployeeJsonDecoder employeeJsonDecoder;
+    private final UpstreamGuard upstreamGuard;
+    private final UpstreamMetrics upstreamMetrics;
+    private final UpstreamEndpoints upstreamEndpoints;
+    private final EmployeeLookupCoalescer employeeLookupCoalescer;
+
+    @Value("${employee.async.timeout-ms:10000}")
+    private long timeoutMillis;
+
+    @Value("${employee.async.decode-threads:4}")
+    private int decodeThreads;
+
+    private ExecutorService decodeExecutor;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("employee-async-decode-");
+        threadFactory.setDaemon(true);
+        decodeExecutor = Executors.newFixedThreadPool(decodeThreads, threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decodeExecutor.shutdownNow();
+    }
+
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        return getRoster().thenApply(EmployeeRoster::getEmployees);
+    }
+
+    public List<Employee> getEmployeesByName(EmployeeRoster roster, String name, boolean ignoreCase, boolean prefix,
+                                             Integer limit) {
+        return roster.getNameIndex().search(name, ignoreCase, prefix, limit == null ? Integer.MAX_VALUE : limit);
+    }
+
+    public int getHighestSalaryOfEmployees(EmployeeRoster roster) {
+        OptionalInt highestSalary = roster.getSalaryRanking().getHighestSalary();
+
+        if (highestSalary.isEmpty()) {
+            String errorMsg = "No Employee with max Salary";
+            log.error(errorMsg);
+            throw new EmployeeNotFoundException(errorMsg);
+        }
+        return highestSalary.getAsInt();
+    }
+
+    public List<String> getTopHighestEarningEmployeeNames(EmployeeRoster roster, int count) {
+        return roster.getSalaryRanking().getTopNames(count);
+    }
+
+    /**
+     * An employee looked up by ID, which is stale if it was taken from the roster after the upstream lookup failed
+     */
+    public record EmployeeLookup(Employee employee, boolean stale) {
+    }
+
+    public CompletableFuture<EmployeeLookup> getEmployeeById(String employeeId) {
+        if (StringUtils.isBlank(employeeId)) {
+            log.error("Employee Id cannot be blank");
+            return CompletableFuture.failedFuture(new EmployeeIdLookupException("Employee Id cannot be blank"));
+        }
+
+        Employee cachedEmployee = appLocalCache.getFromEmployeeCacheById(employeeId);
+
+        if (cachedEmployee != null) {
+            return CompletableFuture.completedFuture(new EmployeeLookup(cachedEmployee, false));
+        }
+
+        if (appLocalCache.isNotFoundInEmployeeCacheById(employeeId)) {
+            return CompletableFuture.failedFuture(
+                    new EmployeeNotFoundException(String.format("Employee with ID %s was not found", employeeId)));
+        }
+
+        return employeeLookupCoalescer.lookupAsync(employeeId, () -> fetchEmployeeById(employeeId))
+                .handle((employee, error) -> {
+                    if (error == null) {
+                        return new EmployeeLookup(employee, false);
+                    }
+
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    Employee lastKnownEmployee = isUpstreamFailure(cause)
+                            ? employeeRosterCache.findLastKnown(NumberUtils.toInt(employeeId, -1)) : null;
+
+                    if (lastKnownEmployee == null) {
+                        throw error instanceof CompletionException completionException
+                                ? completionException : new CompletionException(error);
+                    }
+
+                    log.warn("Returning last known employee for ID {} after upstream failure {}", employeeId, cause.getMessage());
+                    return new EmployeeLookup(lastKnownEmployee, true);
+                });
+    }
+
+    /**
+     * The failures for which EmployeeService also falls back to the last known roster, plus the async call timeout
+     */
+    private static boolean isUpstreamFailure(Throwable error) {
+        return error instanceof UpstreamUnavailableException || error instanceof EmployeeIdLookupException
+                || error instanceof IOException || error instanceof UncheckedIOException || error instanceof TimeoutException;
+    }
+
+    private CompletableFuture<Employee> fetchEmployeeById(String employeeId) {
+        log.info("Sending async request to get employee by id {}", employeeId);
+        return execute(HttpGet::new, EMPLOYEE_PATH.concat("/").concat(employeeId), OPERATION_BY_ID)
+                .thenApplyAsync(response -> decode(response, OPERATION_BY_ID, EmployeeIdLookupException::new,
+                        employeeJsonDecoder::decodeEmployee), decodeExecutor)
+                .thenApply(employee -> {
+                    if (employee == null) {
+                        appLocalCache.addNotFoundToEmployeeCacheById(employeeId);
+                        log.error("Employee with ID {} was not found", employeeId);
+                        throw new EmployeeNotFoundException(String.format("Employee with ID %s was not found", employeeId));
+                    }
+
+                    appLocalCache.addToEmployeeCacheById(employeeId, employee);
+                    return employee;
+                });
+    }
+
+    public CompletableFuture<Employee> createEmployee(Map<String, Object> employeeInput) {
+        ByteArrayEntity requestBody;
+        try {
+            requestBody = new ByteArrayEntity(objectMapper.writeValueAsBytes(employeeInput), ContentType.APPLICATION_JSON);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new EmployeeCreationException(e.getMessage()));
+        }
+
+        log.info("Sending async request to create employee");
+        return execute(uri -> {
+                    HttpPost postRequest = new HttpPost(uri);
+                    postRequest.setEntity(requestBody);
+                    return postRequest;
+                }, CREATE_EMPLOYEE_PATH, OPERATION_CREATE)
+                .thenApplyAsync(response -> decode(response, OPERATION_CREATE, EmployeeCreationException::new,
+                        employeeJsonDecoder::decodeEmployee), decodeExecutor)
+                .thenApply(createdEmployee -> {
+                    if (createdEmployee == null) {
+                        throw new EmployeeCreationException("The created employee was missing from the response");
+                    }
+
+                    appLocalCache.addToEmployeeCacheById(String.valueOf(createdEmployee.getId()), createdEmployee);
+                    employeeRosterCache.applyCreated(createdEmployee);
+                    return createdEmployee;
+                });
+    }
+
+    public CompletableFuture<String> deleteEmployeeById(String employeeId) {
+        if (StringUtils.isBlank(employeeId)) {
+            return CompletableFuture.failedFuture(new EmployeeDeleteException("Employee Id cannot be blank"));
+        }
+
+        log.info("Sending async request to delete employee id {}", employeeId);
+        return execute(HttpDelete::new, DELETE_EMPLOYEE_PATH.concat("/").concat(employeeId), OPERATION_DELETE)
+                .thenApplyAsync(response -> decode(response, OPERATION_DELETE, EmployeeDeleteException::new,
+                        employeeJsonDecoder::decodeDeleteResult), decodeExecutor)
+                .thenApply(deleteResult -> {
+                    appLocalCache.removeFromEmployeeCacheById(employeeId);
+                    employeeRosterCache.applyDeleted(NumberUtils.toInt(employeeId, -1));
+                    return deleteResult;
+                });
+    }
+
+    /**
+     * @return true if the roster is older than the TTL, i.e. it is being served stale after a failed reload
+     */
+    public boolean isRosterExpired(EmployeeRoster roster) {
+        return employeeRosterCache.isExpired(roster);
+    }
+
+    /**
+     * @return the roster read for a request; responses derived from it are stale if {@link #isRosterExpired} it
+     */
+    public CompletableFuture<EmployeeRoster> getRoster() {
+        return employeeRosterCache.getRosterAsync(this::fetchAllEmployees);
+    }
+
+    private CompletableFuture<List<Employee>> fetchAllEmployees() {
+        log.info("Sending async request to get all employees");
+        return execute(HttpGet::new, ALL_EMPLOYEE_PATH, OPERATION_ALL)
+                .thenApplyAsync(response -> decode(response, OPERATION_ALL, AllEmployeeLookupException::new,
+                        employeeJsonDecoder::decodeEmployeeList), decodeExecutor);
+    }
+
+    /**
+     * Sends the request to the endpoint expected to answer fastest
+     */
+    private CompletableFuture<HttpResponse> execute(Function<URI, HttpUriRequest> requestFactory, String path, String operation) {
+        UpstreamEndpoints.Endpoint endpoint = upstreamEndpoints.select();
+        HttpUriRequest request;
+        try {
+            request = requestFactory.apply(endpoint.uri(path));
+            upstreamGuard.acquire();
+        } catch (URISyntaxException e) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(e));
+        } catch (UpstreamUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        request.setHeader(HttpHeaders.ACCEPT_ENCODING, GZIP_ENCODING);
+        upstreamEndpoints.onStart(endpoint);
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse> responseFuture = new CompletableFuture<>();
+        AtomicBoolean timedOut = new AtomicBoolean();
+
+        Future<HttpResponse> call = closeableHttpAsyncClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(HttpResponse response) {
+                long elapsed = System.nanoTime() - start;
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode >= HttpStatus.INTERNAL_SERVER_ERROR.value() || statusCode == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                    upstreamEndpoints.onFailure(endpoint, elapsed);
+                } else {
+                    upstreamEndpoints.onComplete(endpoint, elapsed);
+                }
+                upstreamMetrics.recordRequest(CLIENT_ASYNC, operation, String.valueOf(statusCode), elapsed);
+                upstreamGuard.onResponse(response);
+                responseFuture.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                upstreamEndpoints.onFailure(endpoint, System.nanoTime() - start);
+                upstreamMetrics.recordRequest(CLIENT_ASYNC, operation, STATUS_IO_ERROR, System.nanoTime() - start);
+                upstreamGuard.onFailure();
+                responseFuture.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                if (timedOut.get()) {
+                    upstreamEndpoints.onFailure(endpoint, System.nanoTime() - start);
+                } else {
+                    upstreamEndpoints.onCancelled(endpoint);
+                }
+                upstreamGuard.onCancelled();
+                responseFuture.cancel(false);
+            }
+        });
+
+        return responseFuture.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> {
+                    if (error instanceof TimeoutException) {
+                        timedOut.set(true);
+                        upstreamMetrics.recordRequest(CLIENT_ASYNC, operation, STATUS_IO_ERROR, System.nanoTime() - start);
+                        upstreamGuard.onFailure();
+                    }
+                    if (error != null && call != null) {
+                        call.cancel(true);
+                    }
+                });
+    }
+
+    /**
+     * Checks the response status and decodes the body, mapping failures to the given domain exception
+     */
+    private <T> T decode(HttpResponse response, String operation, Function<String, RuntimeException> exceptionFactory,
+                         ResponseDecoder<T> responseDecoder) {
+        int statusCode = response.getStatusLine().getStatusCode();
+
+        if (statusCode != HttpStatus.OK.value()) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
+            log.error(errorMessage);
+            throw exceptionFactory.apply(errorMessage);
+        }
+
+        try {
+            return upstreamMetrics.decode(CLIENT_ASYNC, operation, decompressed(response.getEntity()), responseDecoder);
+        } catch (JsonProcessingException e) {
+            String errorMessage = e.getMessage();
+            log.error("An error occurred {}", errorMessage);
+            throw exceptionFactory.apply(errorMessage);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Unlike the blocking client, the async client does not decompress responses itself
+     */
+    private static HttpEntity decompressed(HttpEntity entity) {
+        Header contentEncoding = entity.getContentEncoding();
+
+        if (contentEncoding != null && GZIP_ENCODING.equalsIgnoreCase(contentEncoding.getValue())) {
+            return new GzipDecompressingEntity(entity);
+        }
+        return entity;
+    }
+
+}
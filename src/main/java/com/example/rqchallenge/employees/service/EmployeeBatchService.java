@@ -0,0 +1,175 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.exception.EmployeeIdLookupException;
+import com.example.rqchallenge.employees.exception.EmployeeNotFoundException;
+import com.example.rqchallenge.employees.models.Employee;
+import com.example.rqchallenge.employees.models.EmployeeLookupResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves many employee IDs in one call.
+ * Cached IDs are answered immediately; the misses are looked up upstream in parallel on a bounded pool,
+ * and every ID gets its own result so a missing or failing ID does not fail the whole batch.
+ * Each batch uses at most its own share of the pool, so concurrent batches do not starve each other, and
+ * lookups still queued when the batch times out are skipped instead of being sent upstream.
+ * The workers look IDs up through EmployeeLookupCoalescer, whose pool sends the upstream calls; it is sized from
+ * employee.batch.max-concurrency by default, so that pool does not lower the concurrency set here.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeBatchService {
+
+    private final EmployeeService employeeService;
+    private final AppLocalCache appLocalCache;
+
+    @Value("${employee.batch.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${employee.batch.max-concurrency-per-batch:4}")
+    private int maxConcurrencyPerBatch;
+
+    @Value("${employee.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${employee.batch.timeout-ms:10000}")
+    private long batchTimeoutMillis;
+
+    private ExecutorService lookupExecutor;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("employee-batch-");
+        threadFactory.setDaemon(true);
+        lookupExecutor = Executors.newFixedThreadPool(maxConcurrency, threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+
+    public List<EmployeeLookupResult> getEmployeesByIds(List<String> employeeIds) {
+        List<String> distinctIds = employeeIds.stream()
+                .filter(StringUtils::isNotBlank)
+                .map(String::trim)
+                .distinct()
+                .toList();
+
+        if (distinctIds.size() > maxBatchSize) {
+            String errorMessage = String.format("A batch cannot contain more than %s employee IDs", maxBatchSize);
+            log.error(errorMessage);
+            throw new EmployeeIdLookupException(errorMessage);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMillis);
+        Queue<PendingLookup> upstreamLookups = new ConcurrentLinkedQueue<>();
+        Map<String, CompletableFuture<EmployeeLookupResult>> lookups = new LinkedHashMap<>();
+        for (String employeeId : distinctIds) {
+            lookups.put(employeeId, lookup(employeeId, upstreamLookups));
+        }
+
+        int workers = Math.min(maxConcurrencyPerBatch, upstreamLookups.size());
+        for (int i = 0; i < workers; i++) {
+            lookupExecutor.execute(() -> lookupUpstream(upstreamLookups, deadline));
+        }
+
+        log.info("Returning batch lookup of {} employee IDs", distinctIds.size());
+        return lookups.values().stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * An upstream lookup of the batch waiting for one of its workers
+     */
+    private record PendingLookup(String employeeId, CompletableFuture<EmployeeLookupResult> result) {
+    }
+
+    private CompletableFuture<EmployeeLookupResult> lookup(String employeeId, Queue<PendingLookup> upstreamLookups) {
+        Employee cachedEmployee = appLocalCache.getFromEmployeeCacheById(employeeId);
+
+        if (cachedEmployee != null) {
+            return CompletableFuture.completedFuture(found(employeeId, cachedEmployee));
+        }
+
+        if (appLocalCache.isNotFoundInEmployeeCacheById(employeeId)) {
+            return CompletableFuture.completedFuture(notFound(employeeId));
+        }
+
+        CompletableFuture<EmployeeLookupResult> result = new CompletableFuture<EmployeeLookupResult>()
+                .completeOnTimeout(timedOut(employeeId), batchTimeoutMillis, TimeUnit.MILLISECONDS);
+        upstreamLookups.add(new PendingLookup(employeeId, result));
+        return result;
+    }
+
+    /**
+     * Works through the upstream lookups of a batch, skipping those whose result is no longer awaited
+     */
+    private void lookupUpstream(Queue<PendingLookup> upstreamLookups, long deadline) {
+        PendingLookup pendingLookup;
+        while ((pendingLookup = upstreamLookups.poll()) != null) {
+            if (pendingLookup.result().isDone()) {
+                continue;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                pendingLookup.result().complete(timedOut(pendingLookup.employeeId()));
+                continue;
+            }
+            pendingLookup.result().complete(lookupUpstream(pendingLookup.employeeId()));
+        }
+    }
+
+    private EmployeeLookupResult lookupUpstream(String employeeId) {
+        try {
+            return found(employeeId, employeeService.getEmployeeById(employeeId));
+        } catch (EmployeeNotFoundException e) {
+            return notFound(employeeId);
+        } catch (Exception e) {
+            log.error("An error occurred looking up employee {} {}", employeeId, e.getMessage());
+            return error(employeeId, e.getMessage());
+        }
+    }
+
+    private static EmployeeLookupResult found(String employeeId, Employee employee) {
+        return EmployeeLookupResult.builder()
+                .id(employeeId)
+                .status(EmployeeLookupResult.Status.FOUND)
+                .employee(employee)
+                .build();
+    }
+
+    private static EmployeeLookupResult notFound(String employeeId) {
+        return EmployeeLookupResult.builder()
+                .id(employeeId)
+                .status(EmployeeLookupResult.Status.NOT_FOUND)
+                .build();
+    }
+
+    private static EmployeeLookupResult timedOut(String employeeId) {
+        return error(employeeId, "Timed out looking up employee");
+    }
+
+    private static EmployeeLookupResult error(String employeeId, String errorMessage) {
+        return EmployeeLookupResult.builder()
+                .id(employeeId)
+                .status(EmployeeLookupResult.Status.ERROR)
+                .error(errorMessage)
+                .build();
+    }
+}
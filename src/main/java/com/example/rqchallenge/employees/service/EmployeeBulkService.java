@@ -0,0 +1,145 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.exception.BulkRequestException;
+import com.example.rqchallenge.employees.models.BulkOperationResult;
+import com.example.rqchallenge.employees.models.Employee;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates and deletes employees in bulk.
+ * Upstream calls run concurrently on a pool sized to the in-flight limit and are paced to the configured
+ * request rate. Each item is reported individually, so one failure does not abort the rest of the list.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeBulkService {
+
+    private final EmployeeService employeeService;
+
+    @Value("${employee.bulk.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Value("${employee.bulk.max-requests-per-second:20}")
+    private double maxRequestsPerSecond;
+
+    @Value("${employee.bulk.max-size:5000}")
+    private int maxBulkSize;
+
+    private ExecutorService bulkExecutor;
+    private RequestPacer requestPacer;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("employee-bulk-");
+        threadFactory.setDaemon(true);
+        bulkExecutor = Executors.newFixedThreadPool(maxInFlight, threadFactory);
+        requestPacer = new RequestPacer(maxRequestsPerSecond);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkExecutor.shutdownNow();
+    }
+
+    public List<BulkOperationResult> createEmployees(List<Map<String, Object>> employeeInputs) {
+        validateSize(employeeInputs.size());
+
+        List<CompletableFuture<BulkOperationResult>> creations = new ArrayList<>(employeeInputs.size());
+        for (int i = 0; i < employeeInputs.size(); i++) {
+            int index = i;
+            Map<String, Object> employeeInput = employeeInputs.get(i);
+            creations.add(CompletableFuture.supplyAsync(() -> create(index, employeeInput), bulkExecutor));
+        }
+
+        List<BulkOperationResult> results = creations.stream().map(CompletableFuture::join).toList();
+        log.info("Bulk create completed. {} of {} employees created", countSucceeded(results), results.size());
+        return results;
+    }
+
+    public List<BulkOperationResult> deleteEmployeesByIds(List<String> employeeIds) {
+        validateSize(employeeIds.size());
+
+        List<CompletableFuture<BulkOperationResult>> deletions = new ArrayList<>(employeeIds.size());
+        for (int i = 0; i < employeeIds.size(); i++) {
+            int index = i;
+            String employeeId = employeeIds.get(i);
+            deletions.add(CompletableFuture.supplyAsync(() -> delete(index, employeeId), bulkExecutor));
+        }
+
+        List<BulkOperationResult> results = deletions.stream().map(CompletableFuture::join).toList();
+        log.info("Bulk delete completed. {} of {} employees deleted", countSucceeded(results), results.size());
+        return results;
+    }
+
+    private BulkOperationResult create(int index, Map<String, Object> employeeInput) {
+        try {
+            requestPacer.acquire();
+            Employee createdEmployee = employeeService.createEmployee(employeeInput);
+            return BulkOperationResult.builder()
+                    .index(index)
+                    .id(String.valueOf(createdEmployee.getId()))
+                    .status(BulkOperationResult.Status.SUCCEEDED)
+                    .employee(createdEmployee)
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(index, null, "Interrupted before the employee was created");
+        } catch (Exception e) {
+            log.error("An error occurred creating employee at index {} {}", index, e.getMessage());
+            return failed(index, null, e.getMessage());
+        }
+    }
+
+    private BulkOperationResult delete(int index, String employeeId) {
+        try {
+            requestPacer.acquire();
+            String deletedId = employeeService.deleteEmployeeById(employeeId);
+            return BulkOperationResult.builder()
+                    .index(index)
+                    .id(deletedId)
+                    .status(BulkOperationResult.Status.SUCCEEDED)
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(index, employeeId, "Interrupted before the employee was deleted");
+        } catch (Exception e) {
+            log.error("An error occurred deleting employee {} {}", employeeId, e.getMessage());
+            return failed(index, employeeId, e.getMessage());
+        }
+    }
+
+    private void validateSize(int size) {
+        if (size > maxBulkSize) {
+            String errorMessage = String.format("A bulk request cannot contain more than %s items", maxBulkSize);
+            log.error(errorMessage);
+            throw new BulkRequestException(errorMessage);
+        }
+    }
+
+    private static BulkOperationResult failed(int index, String employeeId, String errorMessage) {
+        return BulkOperationResult.builder()
+                .index(index)
+                .id(employeeId)
+                .status(BulkOperationResult.Status.FAILED)
+                .error(errorMessage)
+                .build();
+    }
+
+    private static long countSucceeded(List<BulkOperationResult> results) {
+        return results.stream().filter(result -> result.getStatus() == BulkOperationResult.Status.SUCCEEDED).count();
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, column-oriented copy of the employee roster.
+ * Ids, salaries and ages are held in primitive arrays indexed by row, equal names share a single String, and
+ * profile images are packed into one UTF-8 byte array that is only decoded when an employee is materialized.
+ * Scans over one column read contiguous memory instead of following a reference per employee, and Employee
+ * objects are created only for the rows a response returns.
+ * Appending or removing a row keeps the id index sorted by inserting or removing one entry instead of re-sorting.
+ */
+public final class EmployeeColumns {
+    private static final long NO_PREVIOUS_ROW = 1L << 32;
+
+    private final int[] ids;
+    private final int[] salaries;
+    private final int[] ages;
+    private final String[] names;
+    private final byte[] profileImageBytes;
+    private final int[] profileImageOffsets;
+    private final BitSet nullProfileImages;
+    private final long[] rowsById;
+    private final List<Employee> employees = new EmployeeList();
+
+    private EmployeeColumns(int[] ids, int[] salaries, int[] ages, String[] names,
+                            byte[] profileImageBytes, int[] profileImageOffsets, BitSet nullProfileImages, long[] rowsById) {
+        this.ids = ids;
+        this.salaries = salaries;
+        this.ages = ages;
+        this.names = names;
+        this.profileImageBytes = profileImageBytes;
+        this.profileImageOffsets = profileImageOffsets;
+        this.nullProfileImages = nullProfileImages;
+        this.rowsById = rowsById;
+    }
+
+    public static EmployeeColumns of(List<Employee> employees) {
+        int size = employees.size();
+        int[] ids = new int[size];
+        int[] salaries = new int[size];
+        int[] ages = new int[size];
+        String[] names = new String[size];
+        int[] profileImageOffsets = new int[size + 1];
+        BitSet nullProfileImages = new BitSet();
+        ByteArrayOutputStream profileImages = new ByteArrayOutputStream();
+        Map<String, String> distinctNames = new HashMap<>();
+
+        for (int row = 0; row < size; row++) {
+            Employee employee = employees.get(row);
+            ids[row] = employee.getId();
+            salaries[row] = employee.getEmployeeSalary();
+            ages[row] = employee.getEmployeeAge();
+
+            String name = employee.getEmployeeName();
+            names[row] = name == null ? null : distinctNames.computeIfAbsent(name, key -> key);
+
+            String profileImage = employee.getProfileImage();
+            if (profileImage == null) {
+                nullProfileImages.set(row);
+            } else {
+                profileImages.writeBytes(profileImage.getBytes(StandardCharsets.UTF_8));
+            }
+            profileImageOffsets[row + 1] = profileImages.size();
+        }
+
+        return new EmployeeColumns(ids, salaries, ages, names, profileImages.toByteArray(), profileImageOffsets, nullProfileImages,
+                indexRowsById(ids));
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public int getSalary(int row) {
+        return salaries[row];
+    }
+
+    public int getAge(int row) {
+        return ages[row];
+    }
+
+    public String getName(int row) {
+        return names[row];
+    }
+
+    public String getProfileImage(int row) {
+        if (nullProfileImages.get(row)) {
+            return null;
+        }
+        int offset = profileImageOffsets[row];
+        return new String(profileImageBytes, offset, profileImageOffsets[row + 1] - offset, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the first row holding the employee with the given id, or -1 if there is none
+     */
+    public int rowOf(int employeeId) {
+        int position = Arrays.binarySearch(rowsById, (long) employeeId << 32);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position < rowsById.length && (int) (rowsById[position] >> 32) == employeeId) {
+            return (int) rowsById[position];
+        }
+        return -1;
+    }
+
+    public Employee materialize(int row) {
+        return new Employee(ids[row], names[row], salaries[row], ages[row], getProfileImage(row));
+    }
+
+    public List<Employee> materialize(int[] rows, int count) {
+        Employee[] materialized = new Employee[count];
+        for (int i = 0; i < count; i++) {
+            materialized[i] = materialize(rows[i]);
+        }
+        return List.of(materialized);
+    }
+
+    /**
+     * @return an unmodifiable list view that materializes each employee when it is read; the same instance on every call
+     */
+    public List<Employee> asList() {
+        return employees;
+    }
+
+    /**
+     * @return a copy with the employee added as the last row
+     */
+    public EmployeeColumns withAppended(Employee employee) {
+        int size = size();
+        BitSet updatedNullProfileImages = (BitSet) nullProfileImages.clone();
+        byte[] profileImage = new byte[0];
+        if (employee.getProfileImage() == null) {
+            updatedNullProfileImages.set(size);
+        } else {
+            profileImage = employee.getProfileImage().getBytes(StandardCharsets.UTF_8);
+        }
+
+        byte[] updatedProfileImageBytes = Arrays.copyOf(profileImageBytes, profileImageBytes.length + profileImage.length);
+        System.arraycopy(profileImage, 0, updatedProfileImageBytes, profileImageBytes.length, profileImage.length);
+        int[] updatedProfileImageOffsets = Arrays.copyOf(profileImageOffsets, size + 2);
+        updatedProfileImageOffsets[size + 1] = updatedProfileImageBytes.length;
+
+        long entry = ((long) employee.getId() << 32) | size;
+        int position = -Arrays.binarySearch(rowsById, entry) - 1;
+        long[] updatedRowsById = new long[size + 1];
+        System.arraycopy(rowsById, 0, updatedRowsById, 0, position);
+        updatedRowsById[position] = entry;
+        System.arraycopy(rowsById, position, updatedRowsById, position + 1, size - position);
+
+        return new EmployeeColumns(
+                appended(ids, employee.getId()),
+                appended(salaries, employee.getEmployeeSalary()),
+                appended(ages, employee.getEmployeeAge()),
+                appended(names, employee.getEmployeeName()),
+                updatedProfileImageBytes, updatedProfileImageOffsets, updatedNullProfileImages, updatedRowsById);
+    }
+
+    /**
+     * @return a copy without the given row; the rows after it move up by one
+     */
+    public EmployeeColumns withoutRow(int row) {
+        int removedFrom = profileImageOffsets[row];
+        int removedBytes = profileImageOffsets[row + 1] - removedFrom;
+
+        byte[] updatedProfileImageBytes = new byte[profileImageBytes.length - removedBytes];
+        System.arraycopy(profileImageBytes, 0, updatedProfileImageBytes, 0, removedFrom);
+        System.arraycopy(profileImageBytes, removedFrom + removedBytes, updatedProfileImageBytes, removedFrom,
+                updatedProfileImageBytes.length - removedFrom);
+
+        int[] updatedProfileImageOffsets = new int[profileImageOffsets.length - 1];
+        System.arraycopy(profileImageOffsets, 0, updatedProfileImageOffsets, 0, row + 1);
+        for (int i = row + 1; i < updatedProfileImageOffsets.length; i++) {
+            updatedProfileImageOffsets[i] = profileImageOffsets[i + 1] - removedBytes;
+        }
+
+        BitSet updatedNullProfileImages = nullProfileImages.get(0, row);
+        BitSet shifted = nullProfileImages.get(row + 1, Math.max(row + 1, nullProfileImages.length()));
+        shifted.stream().forEach(bit -> updatedNullProfileImages.set(row + bit));
+
+        long[] updatedRowsById = new long[rowsById.length - 1];
+        int position = 0;
+        for (long entry : rowsById) {
+            int entryRow = (int) entry;
+            if (entryRow != row) {
+                updatedRowsById[position++] = entryRow > row ? entry - 1 : entry;
+            }
+        }
+
+        return new EmployeeColumns(without(ids, row), without(salaries, row), without(ages, row), without(names, row),
+                updatedProfileImageBytes, updatedProfileImageOffsets, updatedNullProfileImages, updatedRowsById);
+    }
+
+    /**
+     * @return the sum of the link hashes, equal only for columns holding the same employees in the same order.
+     * Appending a row adds one link hash, and removing a row only changes its own link and that of the row after it.
+     */
+    long contentHash() {
+        long hash = 0;
+        for (int row = 0; row < ids.length; row++) {
+            hash += linkHash(row);
+        }
+        return hash;
+    }
+
+    /**
+     * @return the hash of the row combined with the id of the row before it; with unique ids, the set of links
+     * determines the row order
+     */
+    long linkHash(int row) {
+        long previousId = row == 0 ? NO_PREVIOUS_ROW : ids[row - 1];
+        return mix(rowHash(row) ^ (previousId * 0x9e3779b97f4a7c15L));
+    }
+
+    /**
+     * @return a well mixed 64-bit hash of every field of the row
+     */
+    long rowHash(int row) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ ids[row]) * 0x100000001b3L;
+        hash = (hash ^ salaries[row]) * 0x100000001b3L;
+        hash = (hash ^ ages[row]) * 0x100000001b3L;
+        hash = (hash ^ (names[row] == null ? 0 : names[row].hashCode())) * 0x100000001b3L;
+        if (nullProfileImages.get(row)) {
+            hash = (hash ^ 0xff) * 0x100000001b3L;
+        } else {
+            for (int i = profileImageOffsets[row]; i < profileImageOffsets[row + 1]; i++) {
+                hash = (hash ^ profileImageBytes[i]) * 0x100000001b3L;
+            }
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Sorted id and row pairs, packed as the id in the high and the row in the low 32 bits
+     */
+    private static long[] indexRowsById(int[] ids) {
+        long[] rowsById = new long[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            rowsById[row] = ((long) ids[row] << 32) | row;
+        }
+        Arrays.sort(rowsById);
+        return rowsById;
+    }
+
+    private static int[] appended(int[] column, int value) {
+        int[] updated = Arrays.copyOf(column, column.length + 1);
+        updated[column.length] = value;
+        return updated;
+    }
+
+    private static String[] appended(String[] column, String value) {
+        String[] updated = Arrays.copyOf(column, column.length + 1);
+        updated[column.length] = value;
+        return updated;
+    }
+
+    private static int[] without(int[] column, int row) {
+        int[] updated = new int[column.length - 1];
+        System.arraycopy(column, 0, updated, 0, row);
+        System.arraycopy(column, row + 1, updated, row, updated.length - row);
+        return updated;
+    }
+
+    private static String[] without(String[] column, int row) {
+        String[] updated = new String[column.length - 1];
+        System.arraycopy(column, 0, updated, 0, row);
+        System.arraycopy(column, row + 1, updated, row, updated.length - row);
+        return updated;
+    }
+
+    private final class EmployeeList extends AbstractList<Employee> implements RandomAccess {
+        @Override
+        public Employee get(int row) {
+            return materialize(row);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
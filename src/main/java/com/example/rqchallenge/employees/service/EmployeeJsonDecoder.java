@@ -0,0 +1,133 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the employee API responses straight from the response stream into Employee objects
+ * using the Jackson streaming parser, without buffering the payload or building a JSON tree.
+ * Both the employee shape (employee_name, employee_salary...) and the create shape (name, salary...)
+ * are supported, and numeric fields sent as strings are coerced.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeJsonDecoder {
+    private static final String DATA_FIELD = "data";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Decodes the /employees response
+     *
+     * @param inputStream response stream
+     * @return list of employees
+     * @throws IOException if the payload is malformed or the data array is missing
+     */
+    public List<Employee> decodeEmployeeList(InputStream inputStream) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (!moveToData(parser) || parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of employees in the data field");
+            }
+
+            List<Employee> employees = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                employees.add(readEmployee(parser));
+            }
+
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected an employee object");
+            }
+            return employees;
+        }
+    }
+
+    /**
+     * Decodes the /employee/{id} and /create responses
+     *
+     * @param inputStream response stream
+     * @return the employee, or null when the data field is missing or null
+     * @throws IOException if the payload is malformed
+     */
+    public Employee decodeEmployee(InputStream inputStream) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (!moveToData(parser) || parser.currentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an employee object in the data field");
+            }
+            return readEmployee(parser);
+        }
+    }
+
+    /**
+     * Decodes the /delete/{id} response
+     *
+     * @param inputStream response stream
+     * @return the data field of the response
+     * @throws IOException if the payload is malformed or the data field is missing
+     */
+    public String decodeDeleteResult(InputStream inputStream) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (!moveToData(parser) || !parser.currentToken().isScalarValue()
+                    || parser.currentToken() == JsonToken.VALUE_NULL) {
+                throw new JsonParseException(parser, "Expected a value in the data field");
+            }
+            return parser.getValueAsString();
+        }
+    }
+
+    /**
+     * Advances the parser to the value of the top level data field
+     *
+     * @return true if the data field was found
+     */
+    private static boolean moveToData(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object");
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if (DATA_FIELD.equals(fieldName)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static Employee readEmployee(JsonParser parser) throws IOException {
+        Employee.EmployeeBuilder builder = Employee.builder();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "id" -> builder.id(parser.getValueAsInt());
+                case "employee_name", "name" -> builder.employeeName(parser.getValueAsString());
+                case "employee_salary", "salary" -> builder.employeeSalary(parser.getValueAsInt());
+                case "employee_age", "age" -> builder.employeeAge(parser.getValueAsInt());
+                case "profile_image" -> builder.profileImage(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unexpected end of employee object");
+        }
+        return builder.build();
+    }
+}
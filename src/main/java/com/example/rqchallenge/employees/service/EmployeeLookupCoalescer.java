@@ -0,0 +1,258 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent employee by ID cache misses so that each ID is looked up upstream at most once at a time.
+ * Callers missing the same ID share the result of the lookup already in flight. A miss with no other lookup
+ * dispatched within the batch window is sent to the pool at once, so an isolated miss does not wait for the window.
+ * Misses that follow it within the window are collected and sent together from one scheduled flush, so a burst of
+ * misses for different IDs reaches the rate limited upstream as one fan-out instead of one call per request thread.
+ * A batch is flushed early once it reaches the max batch size; a window of 0 looks up on the calling thread.
+ * <p>
+ * The pool bounds the upstream lookups in flight across all callers, including the workers of
+ * EmployeeBatchService. Its size defaults to employee.batch.max-concurrency; a smaller pool would queue batch
+ * workers behind it and cap the batch concurrency at the pool size.
+ */
+@Component
+public class EmployeeLookupCoalescer implements MeterBinder {
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+
+    private final Map<String, CompletableFuture<Employee>> inFlight = new ConcurrentHashMap<>();
+    private final List<PendingLookup> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private long lastDispatchNanos;
+
+    private final LongAdder loadedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+
+    private final ScheduledExecutorService flushScheduler;
+    private final ExecutorService lookupExecutor;
+
+    public EmployeeLookupCoalescer(@Value("${employee.lookup.batch-window-ms:2}") long batchWindowMillis,
+                                   @Value("${employee.lookup.max-batch-size:64}") int maxBatchSize,
+                                   @Value("${employee.lookup.max-concurrency:${employee.batch.max-concurrency:16}}") int maxConcurrency) {
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.lastDispatchNanos = System.nanoTime() - batchWindowNanos;
+
+        CustomizableThreadFactory flushThreadFactory = new CustomizableThreadFactory("employee-lookup-flush-");
+        flushThreadFactory.setDaemon(true);
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(flushThreadFactory);
+
+        CustomizableThreadFactory lookupThreadFactory = new CustomizableThreadFactory("employee-lookup-");
+        lookupThreadFactory.setDaemon(true);
+        this.lookupExecutor = Executors.newFixedThreadPool(maxConcurrency, lookupThreadFactory);
+    }
+
+    /**
+     * A blocking upstream lookup of one employee
+     */
+    public interface Loader {
+        Employee load(String employeeId) throws URISyntaxException, IOException;
+    }
+
+    /**
+     * @return the result of the lookup in flight for the ID, or of a new lookup sent at once or with the next batch
+     */
+    public CompletableFuture<Employee> lookup(String employeeId, Loader loader) {
+        CompletableFuture<Employee> lookup = new CompletableFuture<>();
+        CompletableFuture<Employee> existing = inFlight.putIfAbsent(employeeId, lookup);
+        if (existing != null) {
+            coalescedCount.increment();
+            return existing.copy();
+        }
+
+        loadedCount.increment();
+        lookup.whenComplete((employee, error) -> inFlight.remove(employeeId, lookup));
+
+        PendingLookup pendingLookup = new PendingLookup(employeeId, loader, lookup);
+        if (batchWindowNanos <= 0) {
+            pendingLookup.run();
+        } else {
+            enqueue(pendingLookup);
+        }
+        return lookup.copy();
+    }
+
+    /**
+     * Single-flight for lookups that are already non-blocking; they are not batched since they hold no thread
+     *
+     * @return the result of the lookup in flight for the ID, or of the lookup the supplier starts
+     */
+    public CompletableFuture<Employee> lookupAsync(String employeeId, Supplier<CompletableFuture<Employee>> loader) {
+        CompletableFuture<Employee> lookup = new CompletableFuture<>();
+        CompletableFuture<Employee> existing = inFlight.putIfAbsent(employeeId, lookup);
+        if (existing != null) {
+            coalescedCount.increment();
+            return existing.copy();
+        }
+
+        loadedCount.increment();
+        lookup.whenComplete((employee, error) -> inFlight.remove(employeeId, lookup));
+
+        try {
+            loader.get().whenComplete((employee, error) -> {
+                if (error == null) {
+                    lookup.complete(employee);
+                } else {
+                    lookup.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+        }
+        return lookup.copy();
+    }
+
+    /**
+     * Waits for a lookup and rethrows its failure as thrown by the loader
+     */
+    public static Employee await(CompletableFuture<Employee> lookup) throws URISyntaxException, IOException {
+        try {
+            return lookup.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an employee lookup");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof URISyntaxException uriSyntaxException) {
+                throw uriSyntaxException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    public long getLoadedCount() {
+        return loadedCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("employee.lookups", loadedCount, LongAdder::sum).tag("outcome", "loaded").register(meterRegistry);
+        FunctionCounter.builder("employee.lookups", coalescedCount, LongAdder::sum).tag("outcome", "coalesced").register(meterRegistry);
+        FunctionCounter.builder("employee.lookup.batches", batchCount, LongAdder::sum).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdownNow();
+        lookupExecutor.shutdownNow();
+    }
+
+    private void enqueue(PendingLookup pendingLookup) {
+        boolean immediate;
+        boolean full = false;
+        synchronized (pending) {
+            long now = System.nanoTime();
+            immediate = pending.isEmpty() && now - lastDispatchNanos >= batchWindowNanos;
+            if (immediate) {
+                lastDispatchNanos = now;
+            } else {
+                pending.add(pendingLookup);
+                full = pending.size() >= maxBatchSize;
+                if (!full && scheduledFlush == null) {
+                    try {
+                        scheduledFlush = flushScheduler.schedule(this::flush, batchWindowNanos, TimeUnit.NANOSECONDS);
+                    } catch (RejectedExecutionException e) {
+                        full = true;
+                    }
+                }
+            }
+        }
+
+        if (immediate) {
+            dispatch(List.of(pendingLookup));
+        } else if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends every pending lookup to the lookup pool
+     */
+    private void flush() {
+        List<PendingLookup> batch;
+        synchronized (pending) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            lastDispatchNanos = System.nanoTime();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(List<PendingLookup> batch) {
+        batchCount.increment();
+        for (PendingLookup pendingLookup : batch) {
+            try {
+                lookupExecutor.execute(pendingLookup);
+            } catch (RejectedExecutionException e) {
+                pendingLookup.result.completeExceptionally(new IOException("Employee lookups are shut down", e));
+            }
+        }
+    }
+
+    private record PendingLookup(String employeeId, Loader loader, CompletableFuture<Employee> result) implements Runnable {
+        @Override
+        public void run() {
+            try {
+                result.complete(loader.load(employeeId));
+            } catch (URISyntaxException | IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            } catch (Error e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+}
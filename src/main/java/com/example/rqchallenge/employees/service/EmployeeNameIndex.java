@@ -0,0 +1,302 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable trigram inverted index over employee names.
+ * Substring queries intersect the posting lists of the query trigrams and only verify the surviving
+ * candidates; prefix queries use a binary search over the names in sorted order.
+ * Queries shorter than a trigram fall back to a scan that stops once the limit is reached.
+ * The index is built on the first search of a loaded roster snapshot and then updated incrementally by creates
+ * and deletes; it reads the names from the roster columns and only materializes the employees that match.
+ */
+public final class EmployeeNameIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_ROWS = new int[0];
+
+    private final EmployeeColumns columns;
+    private final String[] names;
+    private final String[] lowerCaseNames;
+    private final Map<Long, int[]> postingsByTrigram;
+    private final int[] rowsByName;
+
+    public EmployeeNameIndex(EmployeeColumns columns) {
+        this.columns = columns;
+        this.names = new String[columns.size()];
+        this.lowerCaseNames = new String[columns.size()];
+
+        Map<Long, IntList> postings = new HashMap<>();
+        Map<String, String> lowerCaseByName = new HashMap<>();
+        for (int row = 0; row < names.length; row++) {
+            String name = columns.getName(row);
+            names[row] = name == null ? "" : name;
+            lowerCaseNames[row] = lowerCaseByName.computeIfAbsent(names[row], key -> key.toLowerCase(Locale.ROOT));
+
+            String lowerCaseName = lowerCaseNames[row];
+            for (int i = 0; i + GRAM_LENGTH <= lowerCaseName.length(); i++) {
+                postings.computeIfAbsent(trigram(lowerCaseName, i), key -> new IntList()).addRow(row);
+            }
+        }
+
+        this.postingsByTrigram = new HashMap<>(postings.size() * 2);
+        postings.forEach((key, rows) -> postingsByTrigram.put(key, rows.toArray()));
+
+        this.rowsByName = sortRowsByName(lowerCaseNames, lowerCaseByName.values());
+    }
+
+    private EmployeeNameIndex(EmployeeColumns columns, String[] names, String[] lowerCaseNames,
+                              Map<Long, int[]> postingsByTrigram, int[] rowsByName) {
+        this.columns = columns;
+        this.names = names;
+        this.lowerCaseNames = lowerCaseNames;
+        this.postingsByTrigram = postingsByTrigram;
+        this.rowsByName = rowsByName;
+    }
+
+    /**
+     * Only the posting lists of the added name's trigrams are copied; the others are shared with this index
+     *
+     * @param updated the columns with the added employee as their last row
+     */
+    public EmployeeNameIndex withAdded(EmployeeColumns updated) {
+        int row = updated.size() - 1;
+        String name = updated.getName(row);
+        String[] updatedNames = Arrays.copyOf(names, row + 1);
+        String[] updatedLowerCaseNames = Arrays.copyOf(lowerCaseNames, row + 1);
+        updatedNames[row] = name == null ? "" : name;
+        updatedLowerCaseNames[row] = updatedNames[row].toLowerCase(Locale.ROOT);
+
+        Map<Long, int[]> postings = new HashMap<>(postingsByTrigram);
+        String lowerCaseName = updatedLowerCaseNames[row];
+        for (int i = 0; i + GRAM_LENGTH <= lowerCaseName.length(); i++) {
+            postings.compute(trigram(lowerCaseName, i), (key, rows) -> {
+                if (rows == null) {
+                    return new int[]{row};
+                }
+                if (rows[rows.length - 1] == row) {
+                    return rows;
+                }
+                int[] appended = Arrays.copyOf(rows, rows.length + 1);
+                appended[rows.length] = row;
+                return appended;
+            });
+        }
+
+        int low = 0;
+        int high = rowsByName.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lowerCaseNames[rowsByName[middle]].compareTo(lowerCaseName) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int[] sortedRows = new int[rowsByName.length + 1];
+        System.arraycopy(rowsByName, 0, sortedRows, 0, low);
+        sortedRows[low] = row;
+        System.arraycopy(rowsByName, low, sortedRows, low + 1, rowsByName.length - low);
+
+        return new EmployeeNameIndex(updated, updatedNames, updatedLowerCaseNames, postings, sortedRows);
+    }
+
+    /**
+     * Rows after the removed one move up by one, so every posting list holding such a row is renumbered;
+     * the names are not tokenized again
+     *
+     * @param updated the columns without the removed row
+     * @param removedRow the row removed from the columns
+     */
+    public EmployeeNameIndex withRemoved(EmployeeColumns updated, int removedRow) {
+        String[] updatedNames = new String[names.length - 1];
+        String[] updatedLowerCaseNames = new String[names.length - 1];
+        System.arraycopy(names, 0, updatedNames, 0, removedRow);
+        System.arraycopy(names, removedRow + 1, updatedNames, removedRow, updatedNames.length - removedRow);
+        System.arraycopy(lowerCaseNames, 0, updatedLowerCaseNames, 0, removedRow);
+        System.arraycopy(lowerCaseNames, removedRow + 1, updatedLowerCaseNames, removedRow, updatedNames.length - removedRow);
+
+        Map<Long, int[]> postings = new HashMap<>(postingsByTrigram.size() * 2);
+        postingsByTrigram.forEach((key, rows) -> {
+            int[] updatedRows = withoutRow(rows, removedRow);
+            if (updatedRows.length > 0) {
+                postings.put(key, updatedRows);
+            }
+        });
+
+        return new EmployeeNameIndex(updated, updatedNames, updatedLowerCaseNames, postings,
+                withoutRow(rowsByName, removedRow));
+    }
+
+    /**
+     * @return the rows without the removed row and with the rows after it renumbered, in their original order;
+     * the same array if no row changes
+     */
+    private static int[] withoutRow(int[] rows, int removedRow) {
+        if (Arrays.stream(rows).allMatch(row -> row < removedRow)) {
+            return rows;
+        }
+
+        int[] updatedRows = new int[rows.length];
+        int size = 0;
+        for (int row : rows) {
+            if (row != removedRow) {
+                updatedRows[size++] = row > removedRow ? row - 1 : row;
+            }
+        }
+        return size == rows.length ? updatedRows : Arrays.copyOf(updatedRows, size);
+    }
+
+    /**
+     * Sorts the distinct names only, then the rows by packed name rank and row keys, so no row is boxed
+     */
+    private static int[] sortRowsByName(String[] lowerCaseNames, Collection<String> distinctLowerCaseNames) {
+        String[] sortedNames = distinctLowerCaseNames.stream().distinct().sorted().toArray(String[]::new);
+        Map<String, Integer> rankByName = new HashMap<>(sortedNames.length * 2);
+        for (int rank = 0; rank < sortedNames.length; rank++) {
+            rankByName.put(sortedNames[rank], rank);
+        }
+
+        long[] keys = new long[lowerCaseNames.length];
+        for (int row = 0; row < keys.length; row++) {
+            keys[row] = ((long) rankByName.get(lowerCaseNames[row]) << 32) | row;
+        }
+        Arrays.sort(keys);
+
+        int[] rows = new int[keys.length];
+        for (int position = 0; position < rows.length; position++) {
+            rows[position] = (int) keys[position];
+        }
+        return rows;
+    }
+
+    /**
+     * Finds the employees whose name contains, or starts with, the given string
+     *
+     * @param query string to look for
+     * @param ignoreCase whether the match is case-insensitive
+     * @param prefix whether the name must start with the query instead of containing it
+     * @param limit maximum number of employees returned
+     * @return matching employees, in roster order for substring queries and name order for prefix queries
+     */
+    public List<Employee> search(String query, boolean ignoreCase, boolean prefix, int limit) {
+        String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+
+        if (prefix) {
+            return searchByPrefix(query, lowerCaseQuery, ignoreCase, limit);
+        }
+
+        if (lowerCaseQuery.length() < GRAM_LENGTH) {
+            return scan(query, lowerCaseQuery, ignoreCase, limit);
+        }
+
+        List<Employee> matches = new ArrayList<>();
+        for (int row : candidates(lowerCaseQuery)) {
+            if (matches.size() >= limit) {
+                break;
+            }
+            if (contains(row, query, lowerCaseQuery, ignoreCase)) {
+                matches.add(columns.materialize(row));
+            }
+        }
+        return matches;
+    }
+
+    private int[] candidates(String lowerCaseQuery) {
+        List<int[]> postings = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerCaseQuery.length(); i++) {
+            int[] rows = postingsByTrigram.get(trigram(lowerCaseQuery, i));
+            if (rows == null) {
+                return NO_ROWS;
+            }
+            postings.add(rows);
+        }
+        postings.sort(Comparator.comparingInt(rows -> rows.length));
+
+        int[] smallest = postings.get(0);
+        IntList candidates = new IntList();
+        for (int row : smallest) {
+            boolean inAll = true;
+            for (int i = 1; i < postings.size() && inAll; i++) {
+                inAll = Arrays.binarySearch(postings.get(i), row) >= 0;
+            }
+            if (inAll) {
+                candidates.addRow(row);
+            }
+        }
+        return candidates.toArray();
+    }
+
+    private List<Employee> searchByPrefix(String query, String lowerCaseQuery, boolean ignoreCase, int limit) {
+        int low = 0;
+        int high = rowsByName.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lowerCaseNames[rowsByName[middle]].compareTo(lowerCaseQuery) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        List<Employee> matches = new ArrayList<>();
+        for (int i = low; i < rowsByName.length && matches.size() < limit; i++) {
+            int row = rowsByName[i];
+            if (!lowerCaseNames[row].startsWith(lowerCaseQuery)) {
+                break;
+            }
+            if (ignoreCase || names[row].startsWith(query)) {
+                matches.add(columns.materialize(row));
+            }
+        }
+        return matches;
+    }
+
+    private List<Employee> scan(String query, String lowerCaseQuery, boolean ignoreCase, int limit) {
+        List<Employee> matches = new ArrayList<>();
+        for (int row = 0; row < names.length && matches.size() < limit; row++) {
+            if (contains(row, query, lowerCaseQuery, ignoreCase)) {
+                matches.add(columns.materialize(row));
+            }
+        }
+        return matches;
+    }
+
+    private boolean contains(int row, String query, String lowerCaseQuery, boolean ignoreCase) {
+        return ignoreCase ? lowerCaseNames[row].contains(lowerCaseQuery) : names[row].contains(query);
+    }
+
+    private static long trigram(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+
+    /**
+     * Growable list of ascending row numbers that ignores consecutive duplicates
+     */
+    private static final class IntList {
+        private int[] rows = new int[4];
+        private int size;
+
+        private void addRow(int row) {
+            if (size > 0 && rows[size - 1] == row) {
+                return;
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of the full employee roster together with the indexes built from it.
+ * The employees are held in columns and only materialized as Employee objects when read.
+ * The fingerprint is a hash of the roster content and order, so it is the same for equal rosters loaded at different
+ * times and changes whenever any ordered or paged response derived from the roster could.
+ * The version increases with every change published to the roster cache, whether a reload or a create or delete.
+ * Creates and deletes update the columns, salary ranking, name index and fingerprint incrementally. The name index
+ * of a loaded roster is built on its first search, so a reload that is never searched does not pay for it.
+ */
+public final class EmployeeRoster {
+    private final EmployeeColumns columns;
+    private volatile EmployeeNameIndex nameIndex;
+    private final SalaryRanking salaryRanking;
+    private final long fingerprint;
+    private final long version;
+    private final long loadedAt;
+
+    public EmployeeRoster(List<Employee> employees, long loadedAt) {
+        this(employees, 1, loadedAt);
+    }
+
+    public EmployeeRoster(List<Employee> employees, long version, long loadedAt) {
+        this(EmployeeColumns.of(employees), version, loadedAt);
+    }
+
+    private EmployeeRoster(EmployeeColumns columns, long version, long loadedAt) {
+        this(columns, null, new SalaryRanking(columns), columns.contentHash(), version, loadedAt);
+    }
+
+    private EmployeeRoster(EmployeeColumns columns, EmployeeNameIndex nameIndex, SalaryRanking salaryRanking,
+                           long fingerprint, long version, long loadedAt) {
+        this.columns = columns;
+        this.nameIndex = nameIndex;
+        this.salaryRanking = salaryRanking;
+        this.fingerprint = fingerprint;
+        this.version = version;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * @return a list view over the roster columns; the same instance for the lifetime of the roster
+     */
+    public List<Employee> getEmployees() {
+        return columns.asList();
+    }
+
+    public EmployeeColumns getColumns() {
+        return columns;
+    }
+
+    public EmployeeNameIndex getNameIndex() {
+        EmployeeNameIndex index = nameIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = nameIndex;
+                if (index == null) {
+                    index = new EmployeeNameIndex(columns);
+                    nameIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    public SalaryRanking getSalaryRanking() {
+        return salaryRanking;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return the employee with the given id, or null if the roster does not contain it
+     */
+    public Employee findEmployee(int employeeId) {
+        int row = columns.rowOf(employeeId);
+        return row < 0 ? null : columns.materialize(row);
+    }
+
+    /**
+     * @return this roster with a new load time, for when the upstream confirmed it has not changed
+     */
+    public EmployeeRoster withLoadedAt(long revalidatedAt) {
+        return new EmployeeRoster(columns, nameIndex, salaryRanking, fingerprint, version, revalidatedAt);
+    }
+
+    EmployeeRoster withVersion(long publishedVersion) {
+        return new EmployeeRoster(columns, nameIndex, salaryRanking, fingerprint, publishedVersion, loadedAt);
+    }
+
+    /**
+     * @return a copy of this roster that includes the created employee, replacing any employee with the same id
+     */
+    public EmployeeRoster withCreated(Employee employee) {
+        int row = columns.rowOf(employee.getId());
+        if (row >= 0 && columns.materialize(row).equals(employee)) {
+            return this;
+        }
+
+        EmployeeRoster base = withDeleted(employee.getId());
+        EmployeeColumns updated = base.columns.withAppended(employee);
+        EmployeeNameIndex baseIndex = base.nameIndex;
+        return new EmployeeRoster(updated, baseIndex == null ? null : baseIndex.withAdded(updated),
+                base.salaryRanking.withAdded(updated), base.fingerprint + updated.linkHash(updated.size() - 1),
+                version + 1, loadedAt);
+    }
+
+    /**
+     * @return a copy of this roster without the deleted employee
+     */
+    public EmployeeRoster withDeleted(int employeeId) {
+        EmployeeColumns updated = columns;
+        SalaryRanking updatedRanking = salaryRanking;
+        EmployeeNameIndex updatedIndex = nameIndex;
+        long updatedFingerprint = fingerprint;
+
+        for (int row = updated.rowOf(employeeId); row >= 0; row = updated.rowOf(employeeId)) {
+            updatedFingerprint -= updated.linkHash(row);
+            if (row + 1 < updated.size()) {
+                updatedFingerprint -= updated.linkHash(row + 1);
+            }
+            updated = updated.withoutRow(row);
+            if (row < updated.size()) {
+                updatedFingerprint += updated.linkHash(row);
+            }
+            updatedRanking = updatedRanking.withRemoved(updated, row);
+            updatedIndex = updatedIndex == null ? null : updatedIndex.withRemoved(updated, row);
+        }
+
+        if (updated == columns) {
+            return this;
+        }
+        return new EmployeeRoster(updated, updatedIndex, updatedRanking, updatedFingerprint, version + 1, loadedAt);
+    }
+
+    long ageMillis(long now) {
+        return now - loadedAt;
+    }
+}
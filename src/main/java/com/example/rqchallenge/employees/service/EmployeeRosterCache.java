@@ -0,0 +1,510 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * This cache holds an immutable snapshot of the full employee roster so that list, search and salary
+ * lookups share a single upstream fetch.
+ * A snapshot is served until its TTL expires; once it is older than the refresh-ahead threshold a
+ * background reload is started so callers keep getting the current snapshot while the next one loads.
+ * Concurrent callers that miss share the same in-flight load.
+ * If a reload fails, an expired snapshot younger than the max-stale age is served instead of the error.
+ * A snapshot restored at startup is served right away, stale once past its TTL, while it is being reloaded.
+ * <p>
+ * Every snapshot carries a version. Creates and deletes publish the next version by applying a delta to the
+ * current snapshot with a compare-and-set, so readers never wait on writers. Deltas are also journaled, and
+ * a load that was already in flight when they were applied replays them onto its result, so a response fetched
+ * before the change cannot undo it. A periodic full reload reconciles the snapshot with the upstream API.
+ */
+@Slf4j
+@Component
+public class EmployeeRosterCache implements MeterBinder {
+
+    @Value("${employee.roster.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${employee.roster.refresh-ahead-ms:45000}")
+    private long refreshAheadMillis;
+
+    @Value("${employee.roster.max-stale-ms:3600000}")
+    private long maxStaleMillis;
+
+    @Value("${employee.roster.reconcile-ms:300000}")
+    private long reconcileMillis;
+
+    private final AtomicReference<EmployeeRoster> snapshot = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<EmployeeRoster>> inFlightLoad = new AtomicReference<>();
+    private volatile RosterLoader backgroundLoader;
+    private volatile boolean restoring;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong deltaSequence = new AtomicLong();
+    private final Queue<RosterDelta> journal = new ConcurrentLinkedQueue<>();
+    private final Object deltaLock = new Object();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder staleCount = new LongAdder();
+    private final LongAdder reconcileCount = new LongAdder();
+    private final List<Consumer<EmployeeRoster>> publishListeners = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-roster-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A create or delete applied to the snapshot, numbered in the order it was applied
+     */
+    private record RosterDelta(long sequence, UnaryOperator<EmployeeRoster> change) {
+    }
+
+    /**
+     * Loads the full roster from the upstream API
+     */
+    @FunctionalInterface
+    public interface RosterLoader {
+        List<Employee> load() throws URISyntaxException, IOException;
+    }
+
+    /**
+     * Loads the full roster from the upstream API without blocking the caller
+     */
+    @FunctionalInterface
+    public interface AsyncRosterLoader {
+        CompletableFuture<List<Employee>> load();
+    }
+
+    public EmployeeRoster getRoster(RosterLoader loader) throws URISyntaxException, IOException {
+        EmployeeRoster current = snapshot.get();
+        long now = System.currentTimeMillis();
+
+        if (current != null && current.ageMillis(now) < ttlMillis) {
+            hitCount.increment();
+            if (current.ageMillis(now) >= refreshAheadMillis) {
+                refreshInBackground(loader, refreshAheadMillis);
+            }
+            return current;
+        }
+
+        if (isServableWhileRestoring(current, now)) {
+            staleCount.increment();
+            refreshInBackground(loader, ttlMillis);
+            return current;
+        }
+
+        missCount.increment();
+        try {
+            return load(loader);
+        } catch (IOException | RuntimeException e) {
+            EmployeeRoster stale = getStaleRoster(e);
+            if (stale == null) {
+                throw e;
+            }
+            return stale;
+        }
+    }
+
+    public CompletableFuture<EmployeeRoster> getRosterAsync(AsyncRosterLoader loader) {
+        EmployeeRoster current = snapshot.get();
+        long now = System.currentTimeMillis();
+
+        if (current != null && current.ageMillis(now) < ttlMillis) {
+            hitCount.increment();
+            if (current.ageMillis(now) >= refreshAheadMillis) {
+                refreshInBackground(loader);
+            }
+            return CompletableFuture.completedFuture(current);
+        }
+
+        if (isServableWhileRestoring(current, now)) {
+            staleCount.increment();
+            refreshInBackground(loader);
+            return CompletableFuture.completedFuture(current);
+        }
+
+        missCount.increment();
+        return loadAsync(loader).exceptionally(error -> {
+            EmployeeRoster stale = getStaleRoster(error);
+            if (stale == null) {
+                throw error instanceof CompletionException completionException
+                        ? completionException : new CompletionException(error);
+            }
+            return stale;
+        });
+    }
+
+    /**
+     * @return true if the roster is older than the TTL, i.e. it was served because a reload failed
+     */
+    public boolean isExpired(EmployeeRoster roster) {
+        return roster.ageMillis(System.currentTimeMillis()) >= ttlMillis;
+    }
+
+    /**
+     * Looks an employee up in the current snapshot regardless of its age, as long as it is within the max-stale age
+     *
+     * @return the employee, or null if there is no usable snapshot or it does not contain the employee
+     */
+    public Employee findLastKnown(int employeeId) {
+        EmployeeRoster current = snapshot.get();
+
+        if (current == null || current.ageMillis(System.currentTimeMillis()) >= maxStaleMillis) {
+            return null;
+        }
+
+        return current.findEmployee(employeeId);
+    }
+
+    /**
+     * Seeds the cache with a roster persisted earlier, unless a roster has already been loaded, and starts a
+     * background reload with the loader passed to {@link #scheduleReconcile}.
+     * The roster keeps the time it was taken. Until a load replaces it, it is served without waiting on the
+     * upstream, marked stale once older than the TTL, as long as it is within the max-stale age.
+     */
+    public void restore(List<Employee> employees, long takenAt) {
+        restoring = true;
+        if (!snapshot.compareAndSet(null, new EmployeeRoster(employees, 1, takenAt))) {
+            restoring = false;
+            return;
+        }
+
+        RosterLoader loader = backgroundLoader;
+        if (loader != null) {
+            refreshInBackground(loader, 0);
+        }
+    }
+
+    /**
+     * @return the current roster regardless of its age, or null if none has been loaded
+     */
+    public EmployeeRoster getCurrentRoster() {
+        return snapshot.get();
+    }
+
+    /**
+     * Registers a callback invoked with every roster loaded from the upstream API whose content changed
+     */
+    public void addPublishListener(Consumer<EmployeeRoster> listener) {
+        publishListeners.add(listener);
+    }
+
+    /**
+     * Adds a created employee to the current snapshot, if any, without reloading the roster
+     */
+    public void applyCreated(Employee employee) {
+        applyDelta(roster -> roster.withCreated(employee));
+    }
+
+    /**
+     * Removes a deleted employee from the current snapshot, if any, without reloading the roster
+     */
+    public void applyDeleted(int employeeId) {
+        applyDelta(roster -> roster.withDeleted(employeeId));
+    }
+
+    /**
+     * Reloads the full roster every reconcile interval, whether or not it is being read.
+     * The loader is also used to reload a restored roster.
+     */
+    public void scheduleReconcile(RosterLoader loader) {
+        backgroundLoader = loader;
+        if (reconcileMillis <= 0) {
+            return;
+        }
+
+        refreshExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                load(loader);
+                reconcileCount.increment();
+            } catch (Exception e) {
+                log.warn("Reconciling the employee roster failed {}", e.getMessage());
+            }
+        }, reconcileMillis, reconcileMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    public long getStaleCount() {
+        return staleCount.sum();
+    }
+
+    public long getReconcileCount() {
+        return reconcileCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("employee.roster.requests", hitCount, LongAdder::sum).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("employee.roster.requests", missCount, LongAdder::sum).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("employee.roster.requests", staleCount, LongAdder::sum).tag("result", "stale").register(meterRegistry);
+        FunctionCounter.builder("employee.roster.refreshes", refreshCount, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("employee.roster.reconciles", reconcileCount, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("employee.roster.version", snapshot, roster -> roster.get() == null ? 0 : roster.get().getVersion())
+                .register(meterRegistry);
+        Gauge.builder("employee.roster.size", snapshot, roster -> roster.get() == null ? 0 : roster.get().getEmployees().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Claims the refresh before submitting it, so hits past the refresh-ahead threshold queue at most one reload
+     *
+     * @param freshForMillis the reload is skipped if the roster has become younger than this by the time it runs
+     */
+    private void refreshInBackground(RosterLoader loader, long freshForMillis) {
+        if (inFlightLoad.get() != null || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    EmployeeRoster current = snapshot.get();
+                    if (current == null || current.ageMillis(System.currentTimeMillis()) >= freshForMillis) {
+                        load(loader);
+                        refreshCount.increment();
+                    }
+                } catch (Exception e) {
+                    log.warn("Background refresh of the employee roster failed {}", e.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Starts an async reload unless one is already in flight
+     */
+    private void refreshInBackground(AsyncRosterLoader loader) {
+        if (inFlightLoad.get() != null) {
+            return;
+        }
+
+        loadAsync(loader).whenComplete((roster, error) -> {
+            if (error == null) {
+                refreshCount.increment();
+            } else {
+                log.warn("Background refresh of the employee roster failed {}", error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * A restored roster that no load has replaced yet is served rather than blocking callers on a reload
+     */
+    private boolean isServableWhileRestoring(EmployeeRoster current, long now) {
+        return restoring && current != null && current.ageMillis(now) < maxStaleMillis;
+    }
+
+    private EmployeeRoster load(RosterLoader loader) throws URISyntaxException, IOException {
+        CompletableFuture<EmployeeRoster> future = new CompletableFuture<>();
+        CompletableFuture<EmployeeRoster> existing = inFlightLoad.compareAndExchange(null, future);
+
+        if (existing != null) {
+            return await(existing);
+        }
+
+        long startSequence = deltaSequence.get();
+        try {
+            EmployeeRoster loaded = publish(loader.load(), startSequence);
+            future.complete(loaded);
+            return loaded;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlightLoad.compareAndSet(future, null);
+        }
+    }
+
+    private CompletableFuture<EmployeeRoster> loadAsync(AsyncRosterLoader loader) {
+        CompletableFuture<EmployeeRoster> future = new CompletableFuture<>();
+        CompletableFuture<EmployeeRoster> existing = inFlightLoad.compareAndExchange(null, future);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        long startSequence = deltaSequence.get();
+        CompletableFuture<List<Employee>> loading;
+        try {
+            loading = loader.load();
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+
+        loading.whenComplete((employees, error) -> {
+            try {
+                if (error == null) {
+                    future.complete(publish(employees, startSequence));
+                } else {
+                    future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                inFlightLoad.compareAndSet(future, null);
+            }
+        });
+        return future;
+    }
+
+    private EmployeeRoster getStaleRoster(Throwable loadError) {
+        EmployeeRoster current = snapshot.get();
+
+        if (current == null || current.ageMillis(System.currentTimeMillis()) >= maxStaleMillis) {
+            return null;
+        }
+
+        staleCount.increment();
+        log.warn("Serving a stale employee roster after a failed reload {}", loadError.getMessage());
+        return current;
+    }
+
+    /**
+     * A loader that returns the employees of the current roster signals that the upstream reported it unchanged;
+     * the roster is then kept with a new load time instead of being rebuilt.
+     * Deltas applied since the load started are replayed onto the result, as the upstream response may predate them.
+     * The result is published with a compare-and-set, retried if a delta changed the snapshot in the meantime.
+     */
+    private EmployeeRoster publish(List<Employee> employees, long startSequence) {
+        long now = System.currentTimeMillis();
+        EmployeeRoster loaded = null;
+        EmployeeRoster current;
+        EmployeeRoster published;
+        boolean revalidated;
+
+        do {
+            current = snapshot.get();
+            revalidated = current != null && current.getEmployees() == employees;
+
+            if (revalidated) {
+                published = replayDeltas(current.withLoadedAt(now), startSequence);
+            } else {
+                if (loaded == null) {
+                    loaded = new EmployeeRoster(employees, 1, now);
+                }
+                published = replayDeltas(loaded.withVersion(current == null ? 1 : current.getVersion() + 1), startSequence);
+            }
+        } while (!snapshot.compareAndSet(current, published));
+        restoring = false;
+
+        long publishedSequence = startSequence;
+        for (RosterDelta delta : journal) {
+            publishedSequence = Math.max(publishedSequence, delta.sequence());
+        }
+        pruneJournal(publishedSequence);
+
+        if (!revalidated) {
+            for (Consumer<EmployeeRoster> listener : publishListeners) {
+                try {
+                    listener.accept(published);
+                } catch (RuntimeException e) {
+                    log.warn("Employee roster publish listener failed {}", e.getMessage());
+                }
+            }
+        }
+        return published;
+    }
+
+    /**
+     * Writers are serialized so that concurrent creates and deletes do not retry each other's compare-and-set;
+     * the change is only applied again if a reload was published in the meantime
+     */
+    private void applyDelta(UnaryOperator<EmployeeRoster> change) {
+        long sequence;
+        synchronized (deltaLock) {
+            sequence = deltaSequence.incrementAndGet();
+            journal.add(new RosterDelta(sequence, change));
+            snapshot.updateAndGet(roster -> roster == null ? null : change.apply(roster));
+        }
+
+        if (inFlightLoad.get() == null) {
+            pruneJournal(sequence);
+        }
+    }
+
+    /**
+     * Deltas are idempotent, so one that is replayed here and also applied by its writer is only applied once in effect
+     */
+    private EmployeeRoster replayDeltas(EmployeeRoster roster, long startSequence) {
+        for (RosterDelta delta : journal) {
+            if (delta.sequence() > startSequence) {
+                roster = delta.change().apply(roster);
+            }
+        }
+        return roster;
+    }
+
+    private void pruneJournal(long sequence) {
+        journal.removeIf(delta -> delta.sequence() <= sequence);
+    }
+
+    private static EmployeeRoster await(CompletableFuture<EmployeeRoster> future) throws URISyntaxException, IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof URISyntaxException uriSyntaxException) {
+                throw uriSyntaxException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -2,31 +2,37 @@ package com.example.rqchallenge.employees.service;
 
 import com.example.rqchallenge.employees.exception.*;
 import com.example.rqchallenge.employees.models.Employee;
+import com.example.rqchallenge.employees.models.EmployeeAnalytics;
+import com.example.rqchallenge.employees.models.UpstreamStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.HttpResponse;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.util.EntityUtils;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.example.rqchallenge.employees.config.Constants.*;
+import static com.example.rqchallenge.employees.service.UpstreamMetrics.*;
 
 @Slf4j
 @Service
@@ -36,71 +42,146 @@ public class EmployeeService {
     private final CloseableHttpClient closeableHttpClient;
     private final ObjectMapper objectMapper;
     private final AppLocalCache appLocalCache;
+    private final EmployeeRosterCache employeeRosterCache;
+    private final EmployeeJsonDecoder employeeJsonDecoder;
+    private final UpstreamGuard upstreamGuard;
+    private final UpstreamMetrics upstreamMetrics;
+    private final EmployeeAnalyzer employeeAnalyzer;
+    private final UpstreamEndpoints upstreamEndpoints;
+    private final UpstreamHedger upstreamHedger;
+    private final EmployeeLookupCoalescer employeeLookupCoalescer;
+
+    private volatile String upstreamRosterETag;
+    private volatile String upstreamRosterLastModified;
+
+    @PostConstruct
+    public void scheduleRosterReconcile() {
+        employeeRosterCache.scheduleReconcile(this::fetchAllEmployees);
+    }
 
-    @Value("${employee.api.url}")
-    private String employeeApiUrl;
+    public List<Employee> getAllEmployees() throws URISyntaxException, IOException {
+        return getRoster().getEmployees();
+    }
 
+    /**
+     * @param offset index of the first employee returned
+     * @param limit maximum number of employees returned, or null for all remaining employees
+     * @return the requested page of the roster
+     */
+    public List<Employee> getEmployeesPage(int offset, Integer limit) throws URISyntaxException, IOException {
+        return getEmployeesPage(getRoster(), offset, limit);
+    }
 
-    public List<Employee> getAllEmployees() throws URISyntaxException, IOException {
-        URIBuilder builder = new URIBuilder(employeeApiUrl.concat(ALL_EMPLOYEE_PATH));
-        HttpGet getRequest = new HttpGet(builder.build());
+    /**
+     * @param roster the roster read for this request, see {@link #getRoster()}
+     * @param offset index of the first employee returned
+     * @param limit maximum number of employees returned, or null for all remaining employees
+     * @return the requested page of the given roster
+     */
+    public List<Employee> getEmployeesPage(EmployeeRoster roster, int offset, Integer limit) {
+        if (offset < 0 || (limit != null && limit < 0)) {
+            throw new InvalidEmployeeQueryException("Offset and limit cannot be negative");
+        }
+
+        List<Employee> employees = roster.getEmployees();
+        int fromIndex = Math.min(offset, employees.size());
+        int toIndex = limit == null ? employees.size() : (int) Math.min((long) fromIndex + limit, employees.size());
+
+        log.info("Returning {} employees from offset {}", toIndex - fromIndex, fromIndex);
+        return employees.subList(fromIndex, toIndex);
+    }
+
+    /**
+     * @return salary and age statistics of the current roster, computed once per roster version
+     */
+    public EmployeeAnalytics getAnalytics() throws URISyntaxException, IOException {
+        return getAnalytics(getRoster());
+    }
+
+    public EmployeeAnalytics getAnalytics(EmployeeRoster roster) {
+        EmployeeAnalytics analytics = employeeAnalyzer.analyze(roster);
+        log.info("Returning analytics for {} employees", analytics.getCount());
+        return analytics;
+    }
+
+    public UpstreamStatus getUpstreamStatus() {
+        return upstreamGuard.getStatus();
+    }
+
+    /**
+     * Reads the roster once for a request, so that its fingerprint and every response derived from it come from
+     * the same snapshot; marks the response stale if the roster is expired
+     */
+    public EmployeeRoster getRoster() throws URISyntaxException, IOException {
+        EmployeeRoster roster = employeeRosterCache.getRoster(this::fetchAllEmployees);
+
+        if (employeeRosterCache.isExpired(roster)) {
+            StaleResponseMarker.markStale();
+        }
+        return roster;
+    }
+
+    private List<Employee> fetchAllEmployees() throws URISyntaxException, IOException {
+        EmployeeRoster currentRoster = employeeRosterCache.getCurrentRoster();
+        Consumer<HttpGet> conditionalHeaders = currentRoster == null ? getRequest -> {} : this::addConditionalHeaders;
 
         log.info("Sending request to get all employees");
-        HttpResponse response = closeableHttpClient.execute(getRequest);
-        int statusCode = response.getStatusLine().getStatusCode();
+        try (CloseableHttpResponse response = executeGet(ALL_EMPLOYEE_PATH, OPERATION_ALL, conditionalHeaders)) {
+            int statusCode = response.getStatusLine().getStatusCode();
 
-        if (statusCode == HttpStatus.OK.value()) {
-            String responseString = EntityUtils.toString(response.getEntity());
-            try {
-                JSONObject jsonResponse = new JSONObject(responseString);
-                JSONArray jsonArray = jsonResponse.getJSONArray("data");
-
-                List<Employee> employeesData = new ArrayList<>();
-
-                if (!jsonArray.isEmpty()) {
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject jsonObj = jsonArray.getJSONObject(i);
-                        Employee employee = Employee.builder()
-                                .id((jsonObj.getInt("id")))
-                                .employeeName(jsonObj.getString("employee_name"))
-                                .employeeSalary(jsonObj.getInt("employee_salary"))
-                                .employeeAge(jsonObj.getInt("employee_age"))
-                                .profileImage(jsonObj.getString("profile_image"))
-                                .build();
-                        employeesData.add(employee);
-                    }
+            if (statusCode == HttpStatus.NOT_MODIFIED.value() && currentRoster != null) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                log.info("Employee roster has not changed");
+                return currentRoster.getEmployees();
+            }
+
+            if (statusCode == HttpStatus.OK.value()) {
+                rememberValidators(response);
+                try {
+                    List<Employee> employeesData = upstreamMetrics.decode(CLIENT_BLOCKING, OPERATION_ALL,
+                            response.getEntity(), employeeJsonDecoder::decodeEmployeeList);
+                    log.info("Returning list of {} employees", employeesData.size());
+                    return employeesData;
+                } catch (JsonProcessingException e) {
+                    String errorMessage = e.getMessage();
+                    log.error("An error occurred {}", errorMessage);
+                    throw new AllEmployeeLookupException(errorMessage);
                 }
-                log.info("Returning list of employees {}", employeesData);
-                return employeesData;
-            } catch (JSONException e) {
-                String errorMessage = e.getMessage();
-                log.error("An error occurred {}", errorMessage);
+            } else {
+                EntityUtils.consumeQuietly(response.getEntity());
+                String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
+                log.error(errorMessage);
                 throw new AllEmployeeLookupException(errorMessage);
             }
-        } else {
-            String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
-            log.error(errorMessage);
-            throw new AllEmployeeLookupException(errorMessage);
         }
     }
 
     public List<Employee> getEmployeesByName(String name) throws URISyntaxException, IOException {
-        List<Employee> employees = getAllEmployees();
+        return getEmployeesByName(name, false, false, null);
+    }
+
+    public List<Employee> getEmployeesByName(String name, boolean ignoreCase, boolean prefix, Integer limit)
+            throws URISyntaxException, IOException {
+        return getEmployeesByName(getRoster(), name, ignoreCase, prefix, limit);
+    }
+
+    public List<Employee> getEmployeesByName(EmployeeRoster roster, String name, boolean ignoreCase, boolean prefix,
+                                             Integer limit) {
+        EmployeeNameIndex nameIndex = roster.getNameIndex();
         log.info("Returning list of employees whose name contains or matches: {}", name);
-        return employees.stream()
-                .filter(employee -> employee.getEmployeeName().contains(name))
-                .toList();
+        return nameIndex.search(name, ignoreCase, prefix, limit == null ? Integer.MAX_VALUE : limit);
     }
 
     public int getHighestSalaryOfEmployees() throws URISyntaxException, IOException {
-        List<Employee> employees = getAllEmployees();
+        return getHighestSalaryOfEmployees(getRoster());
+    }
 
-        Optional<Employee> employee =  employees.stream()
-                .max(Comparator.comparing(Employee::getEmployeeAge));
+    public int getHighestSalaryOfEmployees(EmployeeRoster roster) {
+        OptionalInt highestSalary = roster.getSalaryRanking().getHighestSalary();
 
-        if (employee.isPresent()) {
+        if (highestSalary.isPresent()) {
             log.info("Returning employee with max salary");
-            return employee.get().getEmployeeSalary();
+            return highestSalary.getAsInt();
         } else {
             String errorMsg = "No Employee with max Salary";
             log.error(errorMsg);
@@ -109,13 +190,18 @@ public class EmployeeService {
     }
 
     public List<String> getTopTenHighestEarningEmployeeNames() throws URISyntaxException, IOException {
-        List<Employee> employees = getAllEmployees();
+        return getTopHighestEarningEmployeeNames(10);
+    }
+
+    public List<String> getTopHighestEarningEmployeeNames(int count) throws URISyntaxException, IOException {
+        return getTopHighestEarningEmployeeNames(getRoster(), count);
+    }
 
-        log.info("Returning list of top ten highest earning employees");
-        return employees.stream()
-                .sorted(Comparator.comparing(Employee::getEmployeeSalary).reversed())
-                .limit(10)
-                .toList().stream().map(Employee::getEmployeeName).toList();
+    public List<String> getTopHighestEarningEmployeeNames(EmployeeRoster roster, int count) {
+        List<String> topEarnerNames = roster.getSalaryRanking().getTopNames(count);
+
+        log.info("Returning list of top {} highest earning employees", count);
+        return topEarnerNames;
     }
 
     public Employee getEmployeeById(String employeeId) throws URISyntaxException, IOException {
@@ -131,82 +217,115 @@ public class EmployeeService {
             return cachedEmployee;
         }
 
-        URIBuilder builder = new URIBuilder(employeeApiUrl.concat(EMPLOYEE_PATH).concat("/").concat(employeeId));
-        HttpGet getRequest = new HttpGet(builder.build());
+        if (appLocalCache.isNotFoundInEmployeeCacheById(employeeId)) {
+            log.error("Employee with ID {} was not found", employeeId);
+            throw new EmployeeNotFoundException(String.format("Employee with ID %s was not found", employeeId));
+        }
+
+        try {
+            return EmployeeLookupCoalescer.await(employeeLookupCoalescer.lookup(employeeId, this::loadEmployeeById));
+        } catch (UpstreamUnavailableException | EmployeeIdLookupException | IOException e) {
+            Employee lastKnownEmployee = employeeRosterCache.findLastKnown(NumberUtils.toInt(employeeId, -1));
+
+            if (lastKnownEmployee == null) {
+                throw e;
+            }
+
+            log.warn("Returning last known employee for ID {} after upstream failure {}", employeeId, e.getMessage());
+            StaleResponseMarker.markStale();
+            return lastKnownEmployee;
+        }
+    }
+
+    /**
+     * Looks the employee up upstream, unless a lookup that completed while this one waited for its batch cached it
+     */
+    private Employee loadEmployeeById(String employeeId) throws URISyntaxException, IOException {
+        Employee cachedEmployee = appLocalCache.getFromEmployeeCacheById(employeeId);
+
+        if (cachedEmployee != null) {
+            return cachedEmployee;
+        }
+
+        if (appLocalCache.isNotFoundInEmployeeCacheById(employeeId)) {
+            throw new EmployeeNotFoundException(String.format("Employee with ID %s was not found", employeeId));
+        }
+
+        return fetchEmployeeById(employeeId);
+    }
 
+    private Employee fetchEmployeeById(String employeeId) throws URISyntaxException, IOException {
         log.info("Sending request to get employee by id {}", employeeId);
-        HttpResponse response = closeableHttpClient.execute(getRequest);
-        int statusCode = response.getStatusLine().getStatusCode();
+        try (CloseableHttpResponse response = executeGet(EMPLOYEE_PATH.concat("/").concat(employeeId), OPERATION_BY_ID,
+                getRequest -> {})) {
+            int statusCode = response.getStatusLine().getStatusCode();
+
+            if (statusCode == HttpStatus.OK.value()) {
+                try {
+                    Employee employee = upstreamMetrics.decode(CLIENT_BLOCKING, OPERATION_BY_ID,
+                            response.getEntity(), employeeJsonDecoder::decodeEmployee);
+
+                    if(employee == null) {
+                        appLocalCache.addNotFoundToEmployeeCacheById(employeeId);
+                        log.error("Employee with ID {} was not found", employeeId);
+                        throw new EmployeeNotFoundException(String.format("Employee with ID %s was not found", employeeId));
+                    }
 
-        if (statusCode == HttpStatus.OK.value()) {
-            String responseString = EntityUtils.toString(response.getEntity());
-            try {
-                JSONObject jsonResponse = new JSONObject(responseString);
+                    appLocalCache.addToEmployeeCacheById(employeeId, employee);
 
-                if(jsonResponse.toMap().get("data") == null) {
-                    log.error("Employee with ID {} was not found", employeeId);
-                    throw new EmployeeNotFoundException(String.format("Employee with ID %s was not found", employeeId));
+                    log.info("Returning employee for ID {}", employeeId);
+                    return employee;
+                } catch (JsonProcessingException e) {
+                    String errorMessage = e.getMessage();
+                    log.error("An error occurred {}", errorMessage);
+                    throw new EmployeeIdLookupException(errorMessage);
                 }
-
-                JSONObject jsonData = jsonResponse.getJSONObject("data");
-
-                log.info("Returning employee for ID {}", employeeId);
-                return Employee.builder()
-                        .id((jsonData.getInt("id")))
-                        .employeeName(jsonData.getString("employee_name"))
-                        .employeeSalary(jsonData.getInt("employee_salary"))
-                        .employeeAge(jsonData.getInt("employee_age"))
-                        .profileImage(jsonData.getString("profile_image"))
-                        .build();
-            } catch (JSONException e) {
-                String errorMessage = e.getMessage();
-                log.error("An error occurred {}", errorMessage);
+            } else {
+                EntityUtils.consumeQuietly(response.getEntity());
+                String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
+                log.error(errorMessage);
                 throw new EmployeeIdLookupException(errorMessage);
             }
-        } else {
-            String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
-            log.error(errorMessage);
-            throw new EmployeeIdLookupException(errorMessage);
         }
     }
 
     public Employee createEmployee(Map<String, Object> employeeInput) throws URISyntaxException, IOException {
-        URIBuilder builder = new URIBuilder(employeeApiUrl.concat(CREATE_EMPLOYEE_PATH));
-        HttpPost postRequest = new HttpPost(builder.build());
+        UpstreamEndpoints.Endpoint endpoint = upstreamEndpoints.select();
+        HttpPost postRequest = new HttpPost(endpoint.uri(CREATE_EMPLOYEE_PATH));
         postRequest.setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE);
         StringEntity requestBody = new StringEntity(objectMapper.writeValueAsString(employeeInput));
         postRequest.setEntity(requestBody);
 
         log.info("Sending request to create employee");
-        HttpResponse response = closeableHttpClient.execute(postRequest);
-        int statusCode = response.getStatusLine().getStatusCode();
+        try (CloseableHttpResponse response = execute(endpoint, postRequest, OPERATION_CREATE)) {
+            int statusCode = response.getStatusLine().getStatusCode();
 
-        if (statusCode == HttpStatus.OK.value()) {
-            String responseString = EntityUtils.toString(response.getEntity());
-            try {
-                JSONObject jsonResponse = new JSONObject(responseString);
-                JSONObject jsonData = jsonResponse.getJSONObject("data");
-
-                Employee createdEmployee = Employee.builder()
-                        .id((jsonData.getInt("id")))
-                        .employeeName(jsonData.getString("name"))
-                        .employeeSalary(jsonData.getInt("salary"))
-                        .employeeAge(jsonData.getInt("age"))
-                        .build();
-
-                appLocalCache.addToEmployeeCacheById(String.valueOf(createdEmployee.getId()), createdEmployee);
-
-                log.info("Employee created successfully. Returning response: [{}]", createdEmployee);
-                return createdEmployee;
-            } catch (JSONException e) {
-                String errorMessage = e.getMessage();
-                log.error("An error occurred {}", errorMessage);
+            if (statusCode == HttpStatus.OK.value()) {
+                try {
+                    Employee createdEmployee = upstreamMetrics.decode(CLIENT_BLOCKING, OPERATION_CREATE,
+                            response.getEntity(), employeeJsonDecoder::decodeEmployee);
+
+                    if (createdEmployee == null) {
+                        throw new EmployeeCreationException("The created employee was missing from the response");
+                    }
+
+                    appLocalCache.addToEmployeeCacheById(String.valueOf(createdEmployee.getId()), createdEmployee);
+                    employeeRosterCache.applyCreated(createdEmployee);
+                    forgetValidators();
+
+                    log.info("Employee created successfully. Returning response: [{}]", createdEmployee);
+                    return createdEmployee;
+                } catch (JsonProcessingException e) {
+                    String errorMessage = e.getMessage();
+                    log.error("An error occurred {}", errorMessage);
+                    throw new EmployeeCreationException(errorMessage);
+                }
+            } else {
+                EntityUtils.consumeQuietly(response.getEntity());
+                String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
+                log.error(errorMessage);
                 throw new EmployeeCreationException(errorMessage);
             }
-        } else {
-            String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
-            log.error(errorMessage);
-            throw new EmployeeCreationException(errorMessage);
         }
     }
 
@@ -216,32 +335,169 @@ public class EmployeeService {
             throw new EmployeeDeleteException("Employee Id cannot be blank");
         }
 
-        URIBuilder builder = new URIBuilder(employeeApiUrl.concat(DELETE_EMPLOYEE_PATH).concat("/").concat(employeeId));
-        HttpDelete deleteRequest = new HttpDelete(builder.build());
+        UpstreamEndpoints.Endpoint endpoint = upstreamEndpoints.select();
+        HttpDelete deleteRequest = new HttpDelete(endpoint.uri(DELETE_EMPLOYEE_PATH.concat("/").concat(employeeId)));
 
         log.info("Sending request to delete employee id {}", employeeId);
-        HttpResponse response = closeableHttpClient.execute(deleteRequest);
-        int statusCode = response.getStatusLine().getStatusCode();
+        try (CloseableHttpResponse response = execute(endpoint, deleteRequest, OPERATION_DELETE)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+
+            if (statusCode == HttpStatus.OK.value()) {
+                try {
+                    String deleteResult = upstreamMetrics.decode(CLIENT_BLOCKING, OPERATION_DELETE,
+                            response.getEntity(), employeeJsonDecoder::decodeDeleteResult);
+
+                    appLocalCache.removeFromEmployeeCacheById(employeeId);
+                    employeeRosterCache.applyDeleted(NumberUtils.toInt(employeeId, -1));
+                    forgetValidators();
+
+                    log.info("Employee deleted successfully - returning response");
+                    return deleteResult;
+                } catch (JsonProcessingException e) {
+                    String errorMessage = e.getMessage();
+                    log.error("An error occurred {}", errorMessage);
+                    throw new EmployeeDeleteException(errorMessage);
+                }
+            } else {
+                EntityUtils.consumeQuietly(response.getEntity());
+                String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
+                log.error(errorMessage);
+                throw new EmployeeDeleteException(errorMessage);
+            }
+        }
+    }
 
-        if (statusCode == HttpStatus.OK.value()) {
-            String responseString = EntityUtils.toString(response.getEntity());
-            try {
-                JSONObject jsonResponse = new JSONObject(responseString);
+    private void addConditionalHeaders(HttpGet getRequest) {
+        if (upstreamRosterETag != null) {
+            getRequest.setHeader(HttpHeaders.IF_NONE_MATCH, upstreamRosterETag);
+        }
+        if (upstreamRosterLastModified != null) {
+            getRequest.setHeader(HttpHeaders.IF_MODIFIED_SINCE, upstreamRosterLastModified);
+        }
+    }
 
-                appLocalCache.removeFromEmployeeCacheById(employeeId);
+    private void rememberValidators(CloseableHttpResponse response) {
+        Header eTag = response.getFirstHeader(HttpHeaders.ETAG);
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        upstreamRosterETag = eTag == null ? null : eTag.getValue();
+        upstreamRosterLastModified = lastModified == null ? null : lastModified.getValue();
+    }
 
-                log.info("Employee deleted successfully - returning response");
-                return jsonResponse.getString("data");
-            } catch (JSONException e) {
-                String errorMessage = e.getMessage();
-                log.error("An error occurred {}", errorMessage);
-                throw new EmployeeDeleteException(errorMessage);
+    /**
+     * The upstream roster changed with a create or delete, so the next reload must not be answered with not modified
+     */
+    private void forgetValidators() {
+        upstreamRosterETag = null;
+        upstreamRosterLastModified = null;
+    }
+
+    /**
+     * Sends an idempotent GET to the endpoint expected to answer fastest, hedged to another endpoint if it is slow
+     */
+    private CloseableHttpResponse executeGet(String path, String operation, Consumer<HttpGet> customizer)
+            throws URISyntaxException, IOException {
+        UpstreamEndpoints.Endpoint primaryEndpoint = upstreamEndpoints.select();
+        // an invalid path fails here, before any request is sent
+        primaryEndpoint.uri(path);
+
+        return upstreamHedger.execute(operation,
+                new GetAttempt(() -> primaryEndpoint, path, operation, customizer),
+                new GetAttempt(() -> upstreamEndpoints.selectOther(primaryEndpoint), path, operation, customizer),
+                EmployeeService::closeQuietly);
+    }
+
+    /**
+     * Sends the request through the upstream guard so that failures and throttling trip the breaker and backoff,
+     * and records its latency and status. Requests aborted because a hedged request answered first are reported
+     * to the guard as cancelled, not as failures.
+     */
+    private CloseableHttpResponse execute(UpstreamEndpoints.Endpoint endpoint, HttpRequestBase request, String operation)
+            throws IOException {
+        upstreamGuard.acquire();
+        upstreamEndpoints.onStart(endpoint);
+
+        long start = System.nanoTime();
+        CloseableHttpResponse response;
+        try {
+            response = closeableHttpClient.execute(request);
+        } catch (IOException | RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            if (request.isAborted()) {
+                upstreamEndpoints.onCancelled(endpoint);
+                upstreamGuard.onCancelled();
+                upstreamMetrics.recordRequest(CLIENT_BLOCKING, operation, STATUS_CANCELLED, elapsed);
+            } else {
+                upstreamEndpoints.onFailure(endpoint, elapsed);
+                upstreamGuard.onFailure();
+                upstreamMetrics.recordRequest(CLIENT_BLOCKING, operation, STATUS_IO_ERROR, elapsed);
             }
+            throw e;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode >= HttpStatus.INTERNAL_SERVER_ERROR.value() || statusCode == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            upstreamEndpoints.onFailure(endpoint, elapsed);
         } else {
-            String errorMessage = String.format("An error occurred. Http status: [%s]", statusCode);
-            log.error(errorMessage);
-            throw new EmployeeDeleteException(errorMessage);
+            upstreamEndpoints.onComplete(endpoint, elapsed);
+        }
+        upstreamMetrics.recordRequest(CLIENT_BLOCKING, operation, String.valueOf(statusCode), elapsed);
+        upstreamGuard.onResponse(response);
+        return response;
+    }
+
+    private static void closeQuietly(CloseableHttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            log.debug("Could not close a discarded employee API response {}", e.getMessage());
         }
     }
 
+    /**
+     * A GET sent to the endpoint chosen when the attempt starts, which can be aborted from another thread
+     */
+    private final class GetAttempt implements UpstreamHedger.Attempt<CloseableHttpResponse> {
+        private final Supplier<UpstreamEndpoints.Endpoint> endpointSupplier;
+        private final String path;
+        private final String operation;
+        private final Consumer<HttpGet> customizer;
+        private volatile HttpGet request;
+        private volatile boolean cancelled;
+
+        private GetAttempt(Supplier<UpstreamEndpoints.Endpoint> endpointSupplier, String path, String operation,
+                           Consumer<HttpGet> customizer) {
+            this.endpointSupplier = endpointSupplier;
+            this.path = path;
+            this.operation = operation;
+            this.customizer = customizer;
+        }
+
+        @Override
+        public CloseableHttpResponse call() throws IOException {
+            UpstreamEndpoints.Endpoint endpoint = endpointSupplier.get();
+            HttpGet getRequest;
+            try {
+                getRequest = new HttpGet(endpoint.uri(path));
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException(e);
+            }
+            customizer.accept(getRequest);
+
+            request = getRequest;
+            if (cancelled) {
+                getRequest.abort();
+            }
+            return execute(endpoint, getRequest, operation);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            HttpGet getRequest = request;
+            if (getRequest != null) {
+                getRequest.abort();
+            }
+        }
+    }
 }
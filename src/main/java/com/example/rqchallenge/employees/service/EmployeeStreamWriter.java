@@ -0,0 +1,73 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import com.example.rqchallenge.employees.models.EmployeeField;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes employees one at a time with the Jackson streaming generator, either as newline delimited JSON
+ * or as a JSON array, including only the selected fields.
+ * The output is flushed in small batches so the client starts receiving data before the whole list is written.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeStreamWriter {
+    private static final int FLUSH_INTERVAL = 256;
+
+    private final ObjectMapper objectMapper;
+
+    public void writeNdjson(List<Employee> employees, Set<EmployeeField> fields, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            for (int i = 0; i < employees.size(); i++) {
+                writeEmployee(generator, employees.get(i), fields);
+                generator.writeRaw('\n');
+                flushPeriodically(generator, i);
+            }
+        }
+    }
+
+    public void writeJsonArray(List<Employee> employees, Set<EmployeeField> fields, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (int i = 0; i < employees.size(); i++) {
+                writeEmployee(generator, employees.get(i), fields);
+                flushPeriodically(generator, i);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        return objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static void writeEmployee(JsonGenerator generator, Employee employee, Set<EmployeeField> fields) throws IOException {
+        generator.writeStartObject();
+        for (EmployeeField field : fields) {
+            switch (field) {
+                case ID -> generator.writeNumberField(field.getFieldName(), employee.getId());
+                case EMPLOYEE_NAME -> generator.writeStringField(field.getFieldName(), employee.getEmployeeName());
+                case EMPLOYEE_SALARY -> generator.writeNumberField(field.getFieldName(), employee.getEmployeeSalary());
+                case EMPLOYEE_AGE -> generator.writeNumberField(field.getFieldName(), employee.getEmployeeAge());
+                case PROFILE_IMAGE -> generator.writeStringField(field.getFieldName(), employee.getProfileImage());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static void flushPeriodically(JsonGenerator generator, int index) throws IOException {
+        if ((index + 1) % FLUSH_INTERVAL == 0) {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.rqchallenge.employees.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spaces upstream requests evenly so that no more than the configured number start per second.
+ * Each caller reserves the next free slot and sleeps until it is reached; a rate of zero disables pacing.
+ */
+public class RequestPacer {
+    private final long intervalNanos;
+    private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+    public RequestPacer(double requestsPerSecond) {
+        this.intervalNanos = requestsPerSecond <= 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+    }
+
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long previousSlot = nextSlot.getAndUpdate(slot -> Math.max(slot, now) + intervalNanos);
+        long waitNanos = Math.max(previousSlot, now) - now;
+
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
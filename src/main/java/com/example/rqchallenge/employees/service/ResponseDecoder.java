@@ -0,0 +1,12 @@
+package com.example.rqchallenge.employees.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes an upstream response body
+ */
+@FunctionalInterface
+interface ResponseDecoder<T> {
+    T decode(InputStream inputStream) throws IOException;
+}
@@ -0,0 +1,259 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persists the latest roster and the cached employees to a local binary file so a restarted instance can answer
+ * from the first request, and still has data to serve if the employee API is down when it starts.
+ * <p>
+ * The file starts with a magic number, a format version, the time the roster was loaded and the record counts,
+ * followed by the roster, the cached employees and a CRC32 of everything before it. It is written to a temporary
+ * file and moved into place atomically after every roster load, and memory-mapped when read at startup.
+ * Files with another format version, a bad checksum or older than the max age are ignored.
+ */
+@Slf4j
+@Component
+public class RosterSnapshotStore implements ApplicationRunner {
+    private static final int MAGIC = 0x52514553;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final EmployeeRosterCache employeeRosterCache;
+    private final AppLocalCache appLocalCache;
+    private final boolean enabled;
+    private final Path snapshotPath;
+    private final long maxAgeMillis;
+
+    private final AtomicReference<EmployeeRoster> pendingWrite = new AtomicReference<>();
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RosterSnapshotStore(EmployeeRosterCache employeeRosterCache,
+                               AppLocalCache appLocalCache,
+                               @Value("${employee.snapshot.enabled:true}") boolean enabled,
+                               @Value("${employee.snapshot.path:${java.io.tmpdir}/rq-challenge/employee-roster.snapshot}") Path snapshotPath,
+                               @Value("${employee.snapshot.max-age-ms:86400000}") long maxAgeMillis) {
+        this.employeeRosterCache = employeeRosterCache;
+        this.appLocalCache = appLocalCache;
+        this.enabled = enabled;
+        this.snapshotPath = snapshotPath;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * A roster read back from disk
+     */
+    public record Snapshot(long takenAt, List<Employee> employees, Map<String, Employee> cachedEmployees) {
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        if (enabled) {
+            employeeRosterCache.addPublishListener(this::scheduleWrite);
+        }
+    }
+
+    /**
+     * Restores the caches from the snapshot file; runners complete before the application reports it is ready
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        read().ifPresent(snapshot -> {
+            employeeRosterCache.restore(snapshot.employees(), snapshot.takenAt());
+            snapshot.cachedEmployees().forEach((employeeId, employee) ->
+                    appLocalCache.restoreToEmployeeCacheById(employeeId, employee, snapshot.takenAt()));
+            log.info("Restored {} employees and {} cached employees from a snapshot taken {} ms ago",
+                    snapshot.employees().size(), snapshot.cachedEmployees().size(), System.currentTimeMillis() - snapshot.takenAt());
+        });
+    }
+
+    public Optional<Snapshot> read() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Long.BYTES || size > Integer.MAX_VALUE) {
+                log.warn("Ignoring employee snapshot {} with unexpected size {}", snapshotPath, size);
+                return Optional.empty();
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int payloadBytes = (int) size - Long.BYTES;
+
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.duplicate().limit(payloadBytes));
+            if (checksum.getValue() != buffer.getLong(payloadBytes)) {
+                log.warn("Ignoring employee snapshot {} with a bad checksum", snapshotPath);
+                return Optional.empty();
+            }
+
+            if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                log.warn("Ignoring employee snapshot {} written in another format", snapshotPath);
+                return Optional.empty();
+            }
+
+            long takenAt = buffer.getLong();
+            if (System.currentTimeMillis() - takenAt > maxAgeMillis) {
+                log.info("Ignoring employee snapshot {} older than {} ms", snapshotPath, maxAgeMillis);
+                return Optional.empty();
+            }
+
+            int employeeCount = buffer.getInt();
+            int cachedEmployeeCount = buffer.getInt();
+
+            List<Employee> employees = new ArrayList<>(employeeCount);
+            for (int i = 0; i < employeeCount; i++) {
+                employees.add(readEmployee(buffer));
+            }
+
+            Map<String, Employee> cachedEmployees = new HashMap<>();
+            for (int i = 0; i < cachedEmployeeCount; i++) {
+                cachedEmployees.put(readString(buffer), readEmployee(buffer));
+            }
+
+            return Optional.of(new Snapshot(takenAt, employees, cachedEmployees));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read employee snapshot {} {}", snapshotPath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void write(EmployeeRoster roster, Map<String, Employee> cachedEmployees) throws IOException {
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, snapshotPath.getFileName().toString(), ".tmp");
+
+        try {
+            try (OutputStream fileOutputStream = Files.newOutputStream(temporaryFile, StandardOpenOption.WRITE)) {
+                CRC32 checksum = new CRC32();
+                DataOutputStream output = new DataOutputStream(
+                        new CheckedOutputStream(new BufferedOutputStream(fileOutputStream, 1 << 16), checksum));
+
+                output.writeInt(MAGIC);
+                output.writeShort(FORMAT_VERSION);
+                output.writeLong(roster.getLoadedAt());
+                output.writeInt(roster.getEmployees().size());
+                output.writeInt(cachedEmployees.size());
+
+                for (Employee employee : roster.getEmployees()) {
+                    writeEmployee(output, employee);
+                }
+                for (Map.Entry<String, Employee> cachedEmployee : cachedEmployees.entrySet()) {
+                    writeString(output, cachedEmployee.getKey());
+                    writeEmployee(output, cachedEmployee.getValue());
+                }
+
+                output.flush();
+                new DataOutputStream(fileOutputStream).writeLong(checksum.getValue());
+            }
+
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporaryFile, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeExecutor.shutdown();
+    }
+
+    /**
+     * Writes happen off the request path; rosters published while a write is queued replace the queued one
+     */
+    private void scheduleWrite(EmployeeRoster roster) {
+        if (pendingWrite.getAndSet(roster) != null) {
+            return;
+        }
+
+        writeExecutor.execute(() -> {
+            EmployeeRoster latest = pendingWrite.getAndSet(null);
+            try {
+                write(latest, appLocalCache.getCachedEmployees());
+                log.debug("Wrote employee snapshot with {} employees to {}", latest.getEmployees().size(), snapshotPath);
+            } catch (IOException e) {
+                log.warn("Could not write employee snapshot {} {}", snapshotPath, e.getMessage());
+            }
+        });
+    }
+
+    private static void writeEmployee(DataOutputStream output, Employee employee) throws IOException {
+        output.writeInt(employee.getId());
+        output.writeInt(employee.getEmployeeSalary());
+        output.writeInt(employee.getEmployeeAge());
+        writeString(output, employee.getEmployeeName());
+        writeString(output, employee.getProfileImage());
+    }
+
+    private static Employee readEmployee(ByteBuffer buffer) {
+        int id = buffer.getInt();
+        int salary = buffer.getInt();
+        int age = buffer.getInt();
+        return new Employee(id, readString(buffer), salary, age, readString(buffer));
+    }
+
+    /**
+     * Strings are stored as a byte length followed by UTF-8 bytes, with a length of -1 for null
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
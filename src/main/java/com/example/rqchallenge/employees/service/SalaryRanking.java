@@ -0,0 +1,118 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.models.Employee;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Immutable ranking of roster rows by salary, highest first, with equal salaries in roster order.
+ * The ranking is sorted once when a roster snapshot is loaded; the highest salary is then read in O(1)
+ * and the top K employees in O(K). Creates and deletes produce an updated copy with the row
+ * inserted at, or removed from, its ranked position instead of re-sorting the whole roster.
+ */
+public final class SalaryRanking {
+    private final EmployeeColumns columns;
+    private final int[] rankedRows;
+
+    /**
+     * Sorts primitive keys holding the inverted salary in the high and the row in the low 32 bits,
+     * so no comparator or boxed row is involved
+     */
+    public SalaryRanking(EmployeeColumns columns) {
+        long[] keys = new long[columns.size()];
+        for (int row = 0; row < keys.length; row++) {
+            keys[row] = ((long) ~columns.getSalary(row) << 32) | row;
+        }
+        Arrays.sort(keys);
+
+        this.columns = columns;
+        this.rankedRows = new int[keys.length];
+        for (int position = 0; position < keys.length; position++) {
+            rankedRows[position] = (int) keys[position];
+        }
+    }
+
+    private SalaryRanking(EmployeeColumns columns, int[] rankedRows) {
+        this.columns = columns;
+        this.rankedRows = rankedRows;
+    }
+
+    public OptionalInt getHighestSalary() {
+        return rankedRows.length == 0 ? OptionalInt.empty() : OptionalInt.of(columns.getSalary(rankedRows[0]));
+    }
+
+    /**
+     * @param k number of employees
+     * @return the k highest earning employees, highest first
+     */
+    public List<Employee> getTop(int k) {
+        return columns.materialize(rankedRows, Math.max(0, Math.min(k, rankedRows.length)));
+    }
+
+    /**
+     * @param k number of employees
+     * @return the names of the k highest earning employees, highest first, without materializing the employees
+     */
+    public List<String> getTopNames(int k) {
+        String[] names = new String[Math.max(0, Math.min(k, rankedRows.length))];
+        for (int position = 0; position < names.length; position++) {
+            names[position] = columns.getName(rankedRows[position]);
+        }
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * @param position rank of the employee, 0 for the highest earner
+     * @return the salary at that rank
+     */
+    public int getSalaryAt(int position) {
+        return columns.getSalary(rankedRows[position]);
+    }
+
+    public int size() {
+        return rankedRows.length;
+    }
+
+    /**
+     * @param updated the columns with the added employee as their last row
+     */
+    public SalaryRanking withAdded(EmployeeColumns updated) {
+        int row = updated.size() - 1;
+        int salary = updated.getSalary(row);
+
+        int low = 0;
+        int high = rankedRows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (updated.getSalary(rankedRows[middle]) >= salary) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int[] ranked = new int[rankedRows.length + 1];
+        System.arraycopy(rankedRows, 0, ranked, 0, low);
+        ranked[low] = row;
+        System.arraycopy(rankedRows, low, ranked, low + 1, rankedRows.length - low);
+        return new SalaryRanking(updated, ranked);
+    }
+
+    /**
+     * @param updated the columns without the removed row
+     * @param removedRow the row removed from the columns
+     */
+    public SalaryRanking withRemoved(EmployeeColumns updated, int removedRow) {
+        int[] ranked = new int[rankedRows.length - 1];
+        int position = 0;
+        for (int row : rankedRows) {
+            if (row != removedRow) {
+                ranked[position++] = row > removedRow ? row - 1 : row;
+            }
+        }
+        return new SalaryRanking(updated, ranked);
+    }
+}
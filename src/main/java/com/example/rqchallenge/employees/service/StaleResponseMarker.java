@@ -0,0 +1,28 @@
+package com.example.rqchallenge.employees.service;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletResponse;
+
+import static com.example.rqchallenge.employees.config.Constants.STALE_DATA_HEADER;
+
+/**
+ * Flags the current response as served from data the employee API could not confirm is still current.
+ * Outside of a servlet request thread this does nothing.
+ */
+final class StaleResponseMarker {
+    private StaleResponseMarker() {}
+
+    static void markStale() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+
+        if (requestAttributes instanceof ServletRequestAttributes servletRequestAttributes) {
+            HttpServletResponse response = servletRequestAttributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                response.setHeader(STALE_DATA_HEADER, "true");
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.rqchallenge.employees.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The base URLs the employee API is served from, e.g. replicas or regional mirrors, and their observed latency.
+ * Each endpoint keeps an exponentially weighted moving average of its response times, with failures counted as the
+ * failure penalty. Requests go to the endpoint with the lowest average weighted by its requests in flight, so a slow
+ * or failing endpoint is avoided until its average recovers, and endpoints without samples are tried first.
+ */
+@Component
+public class UpstreamEndpoints implements MeterBinder {
+    private static final double DECAY = 0.2;
+
+    private final List<Endpoint> endpoints;
+    private final long failurePenaltyNanos;
+
+    public UpstreamEndpoints(@Value("${employee.api.urls:${employee.api.url}}") List<String> urls,
+                             @Value("${employee.upstream.endpoints.failure-penalty-ms:1000}") long failurePenaltyMillis) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one employee API url is required");
+        }
+        this.endpoints = urls.stream().map(String::trim).map(Endpoint::new).toList();
+        this.failurePenaltyNanos = TimeUnit.MILLISECONDS.toNanos(failurePenaltyMillis);
+    }
+
+    /**
+     * A base URL of the employee API
+     */
+    public static final class Endpoint {
+        private final String url;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double averageNanos;
+        private boolean sampled;
+
+        private Endpoint(String url) {
+            this.url = url;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public URI uri(String path) throws URISyntaxException {
+            return new URI(url.concat(path));
+        }
+
+        public synchronized double getAverageNanos() {
+            return averageNanos;
+        }
+
+        private synchronized void record(long nanos) {
+            averageNanos = sampled ? averageNanos + DECAY * (nanos - averageNanos) : nanos;
+            sampled = true;
+        }
+
+        /**
+         * Endpoints without samples cost less than any sampled endpoint, the least busy of them first
+         */
+        private synchronized double cost() {
+            return sampled ? averageNanos * (inFlight.get() + 1) : -1.0 / (inFlight.get() + 1);
+        }
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return the endpoint with the lowest expected latency
+     */
+    public Endpoint select() {
+        return select(null);
+    }
+
+    /**
+     * @return the endpoint with the lowest expected latency other than the given one, or the given one if it is the only endpoint
+     */
+    public Endpoint selectOther(Endpoint excluded) {
+        return endpoints.size() == 1 ? endpoints.get(0) : select(excluded);
+    }
+
+    /**
+     * Marks the start of a request; every call must be followed by exactly one {@link #onComplete}, {@link #onFailure}
+     * or {@link #onCancelled}
+     */
+    public void onStart(Endpoint endpoint) {
+        endpoint.inFlight.incrementAndGet();
+    }
+
+    public void onComplete(Endpoint endpoint, long nanos) {
+        endpoint.inFlight.decrementAndGet();
+        endpoint.record(nanos);
+    }
+
+    public void onFailure(Endpoint endpoint, long nanos) {
+        endpoint.inFlight.decrementAndGet();
+        endpoint.record(Math.max(nanos, failurePenaltyNanos));
+    }
+
+    /**
+     * Ends a request that was aborted or cancelled before it was answered, e.g. the slower of two hedged requests;
+     * its elapsed time only measures how soon it was abandoned, so it is not recorded
+     */
+    public void onCancelled(Endpoint endpoint) {
+        endpoint.inFlight.decrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (Endpoint endpoint : endpoints) {
+            Gauge.builder("employee.upstream.endpoint.latency", endpoint, e -> e.getAverageNanos() / 1_000_000)
+                    .tag("endpoint", endpoint.getUrl())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("employee.upstream.endpoint.in-flight", endpoint, e -> e.inFlight.get())
+                    .tag("endpoint", endpoint.getUrl())
+                    .register(meterRegistry);
+        }
+    }
+
+    private Endpoint select(Endpoint excluded) {
+        Endpoint best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint == excluded) {
+                continue;
+            }
+            double cost = endpoint.cost();
+            if (best == null || cost < bestCost) {
+                best = endpoint;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.exception.UpstreamUnavailableException;
+import com.example.rqchallenge.employees.models.UpstreamStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Protects the employee API from being hammered while it is failing or throttling us.
+ * Every upstream call goes through {@link #acquire()} first and reports its outcome afterwards:
+ * <ul>
+ *     <li>a circuit breaker opens after consecutive 5xx responses or I/O failures and lets a single probe
+ *     through once the open period has passed</li>
+ *     <li>a 429 blocks further calls for the Retry-After duration, or for an exponentially growing backoff
+ *     when the header is missing</li>
+ *     <li>an AIMD rate limiter halves the allowed request rate on every 429 and raises it by one request
+ *     per second on every success</li>
+ * </ul>
+ * Calls that are not allowed fail fast with an UpstreamUnavailableException instead of waiting, so callers can
+ * fall back to the last good data.
+ */
+@Slf4j
+@Component
+public class UpstreamGuard implements MeterBinder {
+
+    public enum CircuitState {CLOSED, HALF_OPEN, OPEN}
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final double maxRequestsPerSecond;
+    private final double minRequestsPerSecond;
+
+    private CircuitState circuitState = CircuitState.CLOSED;
+    private boolean probeInFlight;
+    private int consecutiveFailures;
+    private int consecutiveThrottles;
+    private long blockedUntilMillis;
+
+    private double allowedRequestsPerSecond;
+    private double availablePermits;
+    private long lastRefillNanos = System.nanoTime();
+
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder throttledCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder circuitOpenCount = new LongAdder();
+
+    public UpstreamGuard(@Value("${employee.upstream.breaker.failure-threshold:5}") int failureThreshold,
+                         @Value("${employee.upstream.breaker.open-ms:10000}") long openMillis,
+                         @Value("${employee.upstream.backoff.base-ms:500}") long backoffBaseMillis,
+                         @Value("${employee.upstream.backoff.max-ms:30000}") long backoffMaxMillis,
+                         @Value("${employee.upstream.rate.max-per-second:50}") double maxRequestsPerSecond,
+                         @Value("${employee.upstream.rate.min-per-second:1}") double minRequestsPerSecond) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        this.minRequestsPerSecond = minRequestsPerSecond;
+        this.allowedRequestsPerSecond = maxRequestsPerSecond;
+        this.availablePermits = maxRequestsPerSecond;
+    }
+
+    /**
+     * Reserves the right to call the employee API
+     *
+     * @throws UpstreamUnavailableException if the call should not be made right now
+     */
+    public synchronized void acquire() {
+        long now = System.currentTimeMillis();
+
+        if (now < blockedUntilMillis) {
+            reject("The employee API is unavailable", blockedUntilMillis - now);
+        }
+
+        if (circuitState == CircuitState.HALF_OPEN && probeInFlight) {
+            reject("The employee API is being probed", backoffBaseMillis);
+        }
+
+        if (!tryTakePermit()) {
+            reject("The employee API request rate limit was reached", (long) Math.ceil(1000 / allowedRequestsPerSecond));
+        }
+
+        if (circuitState == CircuitState.OPEN) {
+            circuitState = CircuitState.HALF_OPEN;
+        }
+        probeInFlight = circuitState == CircuitState.HALF_OPEN;
+    }
+
+    /**
+     * Records the outcome of a call that received a response
+     */
+    public void onResponse(HttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+
+        if (statusCode == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            onThrottled(getRetryAfterMillis(response));
+        } else if (statusCode >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    /**
+     * Records a call that failed without a response, e.g. a connection or socket timeout
+     */
+    public synchronized void onFailure() {
+        failureCount.increment();
+        consecutiveFailures++;
+
+        if (circuitState == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            open(System.currentTimeMillis() + openMillis);
+        }
+    }
+
+    /**
+     * Records a call that was cancelled or aborted before it received a response, e.g. the slower of two hedged
+     * requests. It says nothing about the health of the API, but a cancelled probe frees the half open circuit
+     * for the next call to probe again instead of leaving it waiting for an outcome that never comes.
+     */
+    public synchronized void onCancelled() {
+        if (circuitState == CircuitState.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized UpstreamStatus getStatus() {
+        return UpstreamStatus.builder()
+                .circuitState(circuitState.name())
+                .retryAfterMillis(Math.max(0, blockedUntilMillis - System.currentTimeMillis()))
+                .allowedRequestsPerSecond(allowedRequestsPerSecond)
+                .successCount(successCount.sum())
+                .failureCount(failureCount.sum())
+                .throttledCount(throttledCount.sum())
+                .rejectedCount(rejectedCount.sum())
+                .circuitOpenCount(circuitOpenCount.sum())
+                .build();
+    }
+
+    public synchronized CircuitState getCircuitState() {
+        return circuitState;
+    }
+
+    /**
+     * Publishes the circuit state (0 closed, 1 half open, 2 open), the allowed request rate and the outcome counters
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("employee.upstream.circuit.state", this, guard -> guard.getCircuitState().ordinal())
+                .register(meterRegistry);
+        Gauge.builder("employee.upstream.rate.allowed", this, UpstreamGuard::getAllowedRequestsPerSecond)
+                .register(meterRegistry);
+        FunctionCounter.builder("employee.upstream.outcomes", successCount, LongAdder::sum).tag("outcome", "success").register(meterRegistry);
+        FunctionCounter.builder("employee.upstream.outcomes", failureCount, LongAdder::sum).tag("outcome", "failure").register(meterRegistry);
+        FunctionCounter.builder("employee.upstream.outcomes", throttledCount, LongAdder::sum).tag("outcome", "throttled").register(meterRegistry);
+        FunctionCounter.builder("employee.upstream.outcomes", rejectedCount, LongAdder::sum).tag("outcome", "rejected").register(meterRegistry);
+        FunctionCounter.builder("employee.upstream.circuit.opened", circuitOpenCount, LongAdder::sum).register(meterRegistry);
+    }
+
+    private synchronized double getAllowedRequestsPerSecond() {
+        return allowedRequestsPerSecond;
+    }
+
+    private synchronized void onSuccess() {
+        successCount.increment();
+        consecutiveFailures = 0;
+        consecutiveThrottles = 0;
+        probeInFlight = false;
+        circuitState = CircuitState.CLOSED;
+        allowedRequestsPerSecond = Math.min(maxRequestsPerSecond, allowedRequestsPerSecond + 1);
+    }
+
+    private synchronized void onThrottled(long retryAfterMillis) {
+        throttledCount.increment();
+        consecutiveThrottles++;
+        allowedRequestsPerSecond = Math.max(minRequestsPerSecond, allowedRequestsPerSecond / 2);
+        availablePermits = Math.min(availablePermits, allowedRequestsPerSecond);
+
+        long backoffMillis = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(consecutiveThrottles - 1, 30));
+        long blockedUntil = System.currentTimeMillis() + Math.max(retryAfterMillis, backoffMillis);
+        log.warn("The employee API is throttling requests, backing off for {} ms", blockedUntil - System.currentTimeMillis());
+
+        if (circuitState == CircuitState.HALF_OPEN) {
+            open(blockedUntil);
+        } else {
+            blockedUntilMillis = Math.max(blockedUntilMillis, blockedUntil);
+        }
+    }
+
+    private void open(long openUntilMillis) {
+        if (circuitState != CircuitState.OPEN) {
+            circuitOpenCount.increment();
+            log.warn("Opening the employee API circuit breaker after {} consecutive failures", consecutiveFailures);
+        }
+        circuitState = CircuitState.OPEN;
+        probeInFlight = false;
+        blockedUntilMillis = Math.max(blockedUntilMillis, openUntilMillis);
+    }
+
+    private boolean tryTakePermit() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        availablePermits = Math.min(allowedRequestsPerSecond, availablePermits + elapsedSeconds * allowedRequestsPerSecond);
+        lastRefillNanos = now;
+
+        if (availablePermits < 1) {
+            return false;
+        }
+        availablePermits--;
+        return true;
+    }
+
+    private void reject(String message, long retryAfterMillis) {
+        rejectedCount.increment();
+        throw new UpstreamUnavailableException(message, retryAfterMillis);
+    }
+
+    /**
+     * Retry-After is either a number of seconds or an HTTP date
+     */
+    private static long getRetryAfterMillis(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+
+        if (header == null) {
+            return 0;
+        }
+
+        String value = header.getValue().trim();
+        if (NumberUtils.isDigits(value)) {
+            return TimeUnit.SECONDS.toMillis(NumberUtils.toLong(value));
+        }
+
+        Date retryAt = DateUtils.parseDate(value);
+        return retryAt == null ? 0 : Math.max(0, retryAt.getTime() - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.rqchallenge.employees.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Sends a second, hedged request for an idempotent call once the first has taken longer than the configured
+ * percentile of recent latencies for that operation, and returns whichever answers first; the other is cancelled.
+ * <p>
+ * Hedges are paid for from a budget that every call adds the max hedge ratio to, so hedging adds at most that
+ * fraction of extra load, plus a small burst. When the budget is empty the call simply waits for the first request.
+ * The first request runs on the calling thread, so calls that answer within the hedge delay cost no extra thread.
+ */
+@Component
+public class UpstreamHedger implements MeterBinder {
+    private static final int WINDOW_SIZE = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RESORT_INTERVAL = 16;
+    private static final double MAX_BUDGET = 10;
+
+    private static final int PENDING = 0;
+    private static final int HEDGING = 1;
+    private static final int DONE = 2;
+
+    private static final int NO_WINNER = 0;
+    private static final int PRIMARY_WON = 1;
+    private static final int HEDGE_WON = 2;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double maxHedgeRatio;
+
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private double budget = MAX_BUDGET;
+
+    private final LongAdder wonCount = new LongAdder();
+    private final LongAdder lostCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "employee-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "employee-hedge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UpstreamHedger(@Value("${employee.upstream.hedge.enabled:true}") boolean enabled,
+                          @Value("${employee.upstream.hedge.percentile:0.95}") double percentile,
+                          @Value("${employee.upstream.hedge.min-delay-ms:20}") long minDelayMillis,
+                          @Value("${employee.upstream.hedge.max-delay-ms:1000}") long maxDelayMillis,
+                          @Value("${employee.upstream.hedge.max-ratio:0.1}") double maxHedgeRatio) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.maxHedgeRatio = maxHedgeRatio;
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * One request of a hedged call
+     */
+    public interface Attempt<T> {
+        T call() throws IOException;
+
+        /**
+         * Aborts the request if it is still running; called from another thread
+         */
+        void cancel();
+    }
+
+    /**
+     * @param operation the operation whose latencies decide the hedge delay
+     * @param primary the first request, run on the calling thread
+     * @param hedge the hedged request, only called if the first one is slow
+     * @param discard releases the result of the request that lost the race
+     * @return the result of the request that answered first
+     */
+    public <T> T execute(String operation, Attempt<T> primary, Attempt<T> hedge, Consumer<T> discard) throws IOException {
+        if (!enabled) {
+            return primary.call();
+        }
+
+        LatencyWindow window = latencies.computeIfAbsent(operation, key -> new LatencyWindow());
+        depositBudget();
+        long start = System.nanoTime();
+
+        AtomicInteger state = new AtomicInteger(PENDING);
+        AtomicInteger winner = new AtomicInteger(NO_WINNER);
+        CompletableFuture<T> hedgeResult = new CompletableFuture<>();
+        ScheduledFuture<?> hedgeTimer = timer.schedule(() -> startHedge(state, winner, primary, hedge, discard, hedgeResult),
+                hedgeDelayNanos(window), TimeUnit.NANOSECONDS);
+
+        T result;
+        try {
+            result = primary.call();
+        } catch (IOException | RuntimeException e) {
+            hedgeTimer.cancel(false);
+            if (state.compareAndSet(PENDING, DONE)) {
+                throw e;
+            }
+            return awaitHedge(hedgeResult, e);
+        }
+
+        hedgeTimer.cancel(false);
+        window.record(System.nanoTime() - start);
+
+        if (state.compareAndSet(PENDING, DONE)) {
+            return result;
+        }
+        if (winner.compareAndSet(NO_WINNER, PRIMARY_WON)) {
+            lostCount.increment();
+            hedge.cancel();
+            return result;
+        }
+        discard.accept(result);
+        return awaitHedge(hedgeResult, null);
+    }
+
+    public long getWonCount() {
+        return wonCount.sum();
+    }
+
+    public long getLostCount() {
+        return lostCount.sum();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("employee.upstream.hedges", wonCount, LongAdder::sum).tag("outcome", "won").register(meterRegistry);
+        FunctionCounter.builder("employee.upstream.hedges", lostCount, LongAdder::sum).tag("outcome", "lost").register(meterRegistry);
+        FunctionCounter.builder("employee.upstream.hedges", skippedCount, LongAdder::sum).tag("outcome", "skipped").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        hedgeExecutor.shutdownNow();
+    }
+
+    private <T> void startHedge(AtomicInteger state, AtomicInteger winner, Attempt<T> primary, Attempt<T> hedge,
+                                Consumer<T> discard, CompletableFuture<T> hedgeResult) {
+        if (state.get() != PENDING) {
+            return;
+        }
+        if (!withdrawBudget()) {
+            skippedCount.increment();
+            return;
+        }
+        if (!state.compareAndSet(PENDING, HEDGING)) {
+            refundBudget();
+            return;
+        }
+
+        hedgeExecutor.execute(() -> {
+            try {
+                T result = hedge.call();
+                if (winner.compareAndSet(NO_WINNER, HEDGE_WON)) {
+                    wonCount.increment();
+                    hedgeResult.complete(result);
+                    primary.cancel();
+                } else {
+                    discard.accept(result);
+                    hedgeResult.cancel(false);
+                }
+            } catch (IOException | RuntimeException e) {
+                hedgeResult.completeExceptionally(e);
+            }
+        });
+    }
+
+    private static <T> T awaitHedge(CompletableFuture<T> hedgeResult, Exception primaryError) throws IOException {
+        try {
+            return hedgeResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+        } catch (ExecutionException e) {
+            if (primaryError != null) {
+                rethrow(primaryError);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void rethrow(Exception e) throws IOException {
+        if (e instanceof IOException ioException) {
+            throw ioException;
+        }
+        throw (RuntimeException) e;
+    }
+
+    private long hedgeDelayNanos(LatencyWindow window) {
+        long latency = window.percentile(percentile);
+        if (latency < 0) {
+            return maxDelayNanos;
+        }
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, latency));
+    }
+
+    private synchronized void depositBudget() {
+        budget = Math.min(MAX_BUDGET, budget + maxHedgeRatio);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+
+    private synchronized void refundBudget() {
+        budget = Math.min(MAX_BUDGET, budget + 1);
+    }
+
+    /**
+     * The latencies of the most recent successful first requests of an operation
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int count;
+        private int next;
+        private long[] sorted;
+
+        private synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            if (next % RESORT_INTERVAL == 0) {
+                sorted = null;
+            }
+        }
+
+        /**
+         * @return the nearest-rank percentile, or -1 if there are too few samples; re-sorted every few samples
+         */
+        private synchronized long percentile(double percentile) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            if (sorted == null) {
+                sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+}
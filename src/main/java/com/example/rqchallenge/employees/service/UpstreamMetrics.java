@@ -0,0 +1,67 @@
+package com.example.rqchallenge.employees.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.apache.http.HttpEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency and status of every employee API call, and the time and payload size of decoding its response.
+ * Meters are tagged with the client (blocking or async) and the operation (all, by-id, create, delete).
+ */
+@Component
+@RequiredArgsConstructor
+public class UpstreamMetrics {
+    public static final String CLIENT_BLOCKING = "blocking";
+    public static final String CLIENT_ASYNC = "async";
+
+    public static final String OPERATION_ALL = "all";
+    public static final String OPERATION_BY_ID = "by-id";
+    public static final String OPERATION_CREATE = "create";
+    public static final String OPERATION_DELETE = "delete";
+
+    public static final String STATUS_IO_ERROR = "IO_ERROR";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param status the HTTP status code, IO_ERROR if no response was received, or CANCELLED if a hedged request won
+     */
+    public void recordRequest(String client, String operation, String status, long durationNanos) {
+        Timer.builder("employee.upstream.requests")
+                .description("Time until the employee API returned response headers")
+                .tags("client", client, "operation", operation, "status", status)
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Decodes the response body, recording the decode time and the number of bytes read
+     */
+    public <T> T decode(String client, String operation, HttpEntity entity, ResponseDecoder<T> responseDecoder) throws IOException {
+        CountingInputStream inputStream = new CountingInputStream(entity.getContent());
+        long start = System.nanoTime();
+
+        try {
+            return responseDecoder.decode(inputStream);
+        } finally {
+            Timer.builder("employee.upstream.decode")
+                    .description("Time spent reading and decoding employee API responses")
+                    .tags("client", client, "operation", operation)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("employee.upstream.payload")
+                    .description("Size of employee API response bodies")
+                    .baseUnit("bytes")
+                    .tags("client", client, "operation", operation)
+                    .register(meterRegistry)
+                    .record(inputStream.getCount());
+        }
+    }
+}
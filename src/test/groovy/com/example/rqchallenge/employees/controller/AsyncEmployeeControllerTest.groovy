@@ -0,0 +1,141 @@
+package com.example.rqchallenge.employees.controller
+
+import com.example.rqchallenge.employees.exception.AppExceptionHandler
+import com.example.rqchallenge.employees.exception.EmployeeNotFoundException
+import com.example.rqchallenge.employees.models.Employee
+import com.example.rqchallenge.employees.service.EmployeeAsyncService
+import com.example.rqchallenge.employees.service.EmployeeRoster
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.test.mock.mockito.MockBean
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import org.springframework.web.context.WebApplicationContext
+import org.springframework.web.servlet.config.annotation.EnableWebMvc
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeoutException
+
+import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getEmployeeMock
+import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getEmployeesListMock
+import static org.mockito.Mockito.when
+
+@ActiveProfiles("test")
+@SpringBootTest(classes = [AsyncEmployeeController.class, AppExceptionHandler.class])
+@EnableWebMvc
+class AsyncEmployeeControllerTest extends Specification {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext
+    private MockMvc mockMvc
+
+    @MockBean
+    private EmployeeAsyncService employeeAsyncService
+
+    List<Employee> employeeList
+    Employee employee
+    EmployeeRoster roster
+
+    def setup() {
+        employeeList = getEmployeesListMock()
+        employee = getEmployeeMock()
+        roster = new EmployeeRoster(employeeList, System.currentTimeMillis())
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build()
+    }
+
+    def 'Get List of all employees asynchronously'() {
+        given: 'A request to get all employees'
+        when(employeeAsyncService.getRoster()).thenReturn(CompletableFuture.completedFuture(roster))
+
+        when: 'The async get employees endpoint is called'
+        def result = mockMvc.perform(MockMvcRequestBuilders.get('/employees/async'))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn()
+
+        then: 'A response with Http OK status once the future completes'
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$[0].employeeName').value('Joe Tester'))
+    }
+
+    def 'Get List of all employees asynchronously - stale roster'() {
+        given: 'A roster that could not be reloaded'
+        when(employeeAsyncService.getRoster()).thenReturn(CompletableFuture.completedFuture(roster))
+        when(employeeAsyncService.isRosterExpired(roster)).thenReturn(true)
+
+        when: 'The async get employees endpoint is called'
+        def result = mockMvc.perform(MockMvcRequestBuilders.get('/employees/async'))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn()
+
+        then: 'A response with Http OK status marked stale'
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string('X-Employee-Data-Stale', 'true'))
+    }
+
+    def 'Get employee by ID asynchronously - last known employee after an upstream failure'() {
+        given: 'An employee taken from the roster after its lookup failed'
+        when(employeeAsyncService.getEmployeeById('1'))
+                .thenReturn(CompletableFuture.completedFuture(new EmployeeAsyncService.EmployeeLookup(employee, true)))
+
+        when: 'The async get employee by ID endpoint is called'
+        def result = mockMvc.perform(MockMvcRequestBuilders.get('/employees/async/1'))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn()
+
+        then: 'A response with Http OK status marked stale'
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string('X-Employee-Data-Stale', 'true'))
+                .andExpect(MockMvcResultMatchers.jsonPath('$.employeeName').value('Joe Tester'))
+    }
+
+    def 'Get employee by ID asynchronously - employee not found'() {
+        given: 'A request to get an employee that does not exist'
+        when(employeeAsyncService.getEmployeeById('1000'))
+                .thenReturn(CompletableFuture.failedFuture(new EmployeeNotFoundException('Employee with ID 1000 was not found')))
+
+        when: 'The async get employee by ID endpoint is called'
+        def result = mockMvc.perform(MockMvcRequestBuilders.get('/employees/async/1000'))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn()
+
+        then: 'A response with Http NOT FOUND status from the exception handler'
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+    }
+
+    def 'Get highest salary asynchronously - upstream timeout'() {
+        given: 'A request whose upstream call times out'
+        when(employeeAsyncService.getRoster())
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()))
+
+        when: 'The async highest salary endpoint is called'
+        def result = mockMvc.perform(MockMvcRequestBuilders.get('/employees/async/highestSalary'))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn()
+
+        then: 'A response with Http GATEWAY TIMEOUT status'
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isGatewayTimeout())
+    }
+
+    def 'Delete an employee asynchronously'() {
+        given: 'A request to delete an employee'
+        when(employeeAsyncService.deleteEmployeeById('1')).thenReturn(CompletableFuture.completedFuture('1'))
+
+        when: 'The async delete employee endpoint is called'
+        def result = mockMvc.perform(MockMvcRequestBuilders.delete('/employees/async/1'))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn()
+
+        then: 'A response with Http OK status'
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+    }
+}
@@ -1,8 +1,17 @@
 package com.example.rqchallenge.employees.controller
 
 import com.example.rqchallenge.employees.models.Employee
+import com.example.rqchallenge.employees.models.EmployeeAnalytics
+import com.example.rqchallenge.employees.models.EmployeeLookupResult
+import com.example.rqchallenge.employees.models.BulkOperationResult
+import com.example.rqchallenge.employees.models.UpstreamStatus
+import com.example.rqchallenge.employees.service.EmployeeBatchService
+import com.example.rqchallenge.employees.service.EmployeeBulkService
+import com.example.rqchallenge.employees.service.EmployeeRoster
 import com.example.rqchallenge.employees.service.EmployeeService
+import com.example.rqchallenge.employees.service.EmployeeStreamWriter
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.dataformat.smile.SmileFactory
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.SpringBootTest
@@ -21,10 +30,11 @@ import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getEmployeeM
 import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getEmployeeRequest
 import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getEmployeesListMock
 import static org.mockito.ArgumentMatchers.any
+import static org.mockito.ArgumentMatchers.anyBoolean
 import static org.mockito.Mockito.when
 
 @ActiveProfiles("test")
-@SpringBootTest(classes = EmployeeController.class)
+@SpringBootTest(classes = [EmployeeController.class, EmployeeStreamWriter.class, ObjectMapper.class])
 @EnableWebMvc
 class EmployeeControllerTest extends Specification {
 
@@ -35,14 +45,25 @@ class EmployeeControllerTest extends Specification {
     @MockBean
     private EmployeeService employeeService
 
+    @MockBean
+    private EmployeeBatchService employeeBatchService
+
+    @MockBean
+    private EmployeeBulkService employeeBulkService
+
     List<Employee> employeeList
     Employee employee
     Map<String, Object> createEmployeeRequest
+    EmployeeRoster roster
+    String rosterETag
 
     def setup() {
         employeeList = getEmployeesListMock()
         employee = getEmployeeMock()
         createEmployeeRequest = getEmployeeRequest()
+        roster = new EmployeeRoster(employeeList, System.currentTimeMillis())
+        rosterETag = String.format('W/"%x"', roster.fingerprint)
+        when(employeeService.getRoster()).thenReturn(roster)
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build()
     }
 
@@ -50,24 +71,83 @@ class EmployeeControllerTest extends Specification {
         given: 'A request to get all employees'
 
         when: 'The get employees endpoint is called'
-        when(employeeService.getAllEmployees()).thenReturn(employeeList)
+        when(employeeService.getEmployeesPage(roster, 0, null)).thenReturn(employeeList)
 
         then: 'A response with Http OK status'
         mockMvc.perform(MockMvcRequestBuilders.get('/employees'))
                 .andExpect (MockMvcResultMatchers.status().isOk())
     }
 
+    def 'Get a page of employees'() {
+        given: 'A request for a page of employees'
+
+        when: 'The get employees endpoint is called with an offset and limit'
+        when(employeeService.getEmployeesPage(roster, 10, 5)).thenReturn(employeeList)
+
+        then: 'A response with Http OK status'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees')
+                .param('offset', '10')
+                .param('limit', '5'))
+                .andExpect (MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$[0].employeeName').value('Joe Tester'))
+    }
+
+    def 'Get a page of employees with selected fields'() {
+        given: 'A request for employees with only their id and name'
+
+        when: 'The get employees endpoint is called with fields'
+        when(employeeService.getEmployeesPage(roster, 0, null)).thenReturn(employeeList)
+
+        then: 'A response with Http OK status and only the selected fields'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees')
+                .param('fields', 'id,employeeName'))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json('[{"id":0,"employeeName":"Joe Tester"}]', true))
+    }
+
+    def 'Stream employees as newline delimited JSON with selected fields'() {
+        given: 'A request to stream employees'
+        when(employeeService.getEmployeesPage(0, null)).thenReturn(employeeList)
+
+        when: 'The stream employees endpoint is called'
+        def result = mockMvc.perform(MockMvcRequestBuilders.get('/employees/stream')
+                .param('fields', 'id,employeeName'))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn()
+
+        then: 'A response with Http OK status and one projected employee per line'
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string('Content-Type', 'application/x-ndjson'))
+                .andExpect(MockMvcResultMatchers.content().string('{"id":0,"employeeName":"Joe Tester"}\n'))
+    }
+
     def 'Get List of all employees by name'() {
         given: 'A request to get all employees by name'
 
         when: 'The get employees by name endpoint is called'
-        when(employeeService.getEmployeesByName(any())).thenReturn(employeeList)
+        when(employeeService.getEmployeesByName(any(), any(), anyBoolean(), anyBoolean(), any())).thenReturn(employeeList)
 
         then: 'A response with Http OK status'
         mockMvc.perform(MockMvcRequestBuilders.get('/employees/search/joe'))
                 .andExpect (MockMvcResultMatchers.status().isOk())
     }
 
+    def 'Get List of employees by case-insensitive name prefix'() {
+        given: 'A request to get employees whose name starts with a string'
+
+        when: 'The get employees by name endpoint is called with search options'
+        when(employeeService.getEmployeesByName(roster, 'jo', true, true, 5)).thenReturn(employeeList)
+
+        then: 'A response with Http OK status'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees/search/jo')
+                .param('ignoreCase', 'true')
+                .param('prefix', 'true')
+                .param('limit', '5'))
+                .andExpect (MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$[0].employeeName').value('Joe Tester'))
+    }
+
     def 'Get employee by ID'() {
         given: 'A request to get an employees by ID'
 
@@ -79,11 +159,33 @@ class EmployeeControllerTest extends Specification {
                 .andExpect (MockMvcResultMatchers.status().isOk())
     }
 
+    def 'Get employees by a batch of IDs'() {
+        given: 'A request to get employees by a batch of IDs'
+        def results = [
+                EmployeeLookupResult.builder().id('1').status(EmployeeLookupResult.Status.FOUND).employee(employee).build(),
+                EmployeeLookupResult.builder().id('2').status(EmployeeLookupResult.Status.NOT_FOUND).build()
+        ]
+
+        when: 'The batch endpoint is called'
+        when(employeeBatchService.getEmployeesByIds(['1', '2'])).thenReturn(results)
+
+        then: 'A response with a result per ID'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees/batch').param('ids', '1,2'))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$[0].status').value('FOUND'))
+                .andExpect(MockMvcResultMatchers.jsonPath('$[1].status').value('NOT_FOUND'))
+        mockMvc.perform(MockMvcRequestBuilders.post('/employees/batch')
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(toJsonString(['1', '2'])))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$[1].id').value('2'))
+    }
+
     def 'Get List of employees with highest salary'() {
         given: 'A request to get employee with highest salary'
 
         when: 'The get highest salary employees endpoint is called'
-        when(employeeService.getHighestSalaryOfEmployees()).thenReturn(35000)
+        when(employeeService.getHighestSalaryOfEmployees(roster)).thenReturn(35000)
 
         then: 'A response with Http OK status'
         mockMvc.perform(MockMvcRequestBuilders.get('/employees/highestSalary'))
@@ -94,13 +196,25 @@ class EmployeeControllerTest extends Specification {
         given: 'A request to get the top ten employees with highest salary'
 
         when: 'The get to top ten highest salary employees endpoint is called'
-        when(employeeService.getTopTenHighestEarningEmployeeNames()).thenReturn(List.of('Joe Tester'))
+        when(employeeService.getTopHighestEarningEmployeeNames(roster, 10)).thenReturn(List.of('Joe Tester'))
 
         then: 'A response with Http OK status'
         mockMvc.perform(MockMvcRequestBuilders.get('/employees/topTenHighestEarningEmployeeNames'))
                 .andExpect (MockMvcResultMatchers.status().isOk())
     }
 
+    def 'Get List of top k employees with highest salary'() {
+        given: 'A request to get the top k employees with highest salary'
+
+        when: 'The get top highest salary employees endpoint is called'
+        when(employeeService.getTopHighestEarningEmployeeNames(roster, 3)).thenReturn(List.of('Joe Tester'))
+
+        then: 'A response with Http OK status'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees/top').param('k', '3'))
+                .andExpect (MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$[0]').value('Joe Tester'))
+    }
+
     def 'Create an employee'() {
         given: 'A request to create an employee'
 
@@ -114,6 +228,36 @@ class EmployeeControllerTest extends Specification {
                 .andExpect(MockMvcResultMatchers.status().isCreated())
     }
 
+    def 'Create employees in bulk'() {
+        given: 'A request to create employees in bulk'
+        def results = [BulkOperationResult.builder().index(0).id('1').status(BulkOperationResult.Status.SUCCEEDED).build()]
+
+        when: 'The bulk create endpoint is called'
+        when(employeeBulkService.createEmployees([createEmployeeRequest])).thenReturn(results)
+
+        then: 'A response with a result per employee'
+        mockMvc.perform(MockMvcRequestBuilders.post('/employees/bulk')
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(toJsonString([createEmployeeRequest])))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$[0].status').value('SUCCEEDED'))
+    }
+
+    def 'Delete employees in bulk'() {
+        given: 'A request to delete employees in bulk'
+        def results = [BulkOperationResult.builder().index(0).id('1').status(BulkOperationResult.Status.FAILED).error('failed').build()]
+
+        when: 'The bulk delete endpoint is called'
+        when(employeeBulkService.deleteEmployeesByIds(['1'])).thenReturn(results)
+
+        then: 'A response with a result per employee'
+        mockMvc.perform(MockMvcRequestBuilders.delete('/employees/bulk')
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(toJsonString(['1'])))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$[0].status').value('FAILED'))
+    }
+
     def 'Delete an employee'() {
         given: 'A request to delete an employee'
 
@@ -132,4 +276,63 @@ class EmployeeControllerTest extends Specification {
             throw new RuntimeException(e)
         }
     }
+
+    def 'Get employee analytics'() {
+        given: 'A request to get the employee analytics'
+        when(employeeService.getAnalytics(roster)).thenReturn(EmployeeAnalytics.builder().count(3).maxSalary(320800).build())
+
+        expect: 'A response with Http OK status, the analytics and the roster ETag'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees/analytics'))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string('ETag', rosterETag))
+                .andExpect(MockMvcResultMatchers.jsonPath('$.count').value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath('$.maxSalary').value(320800))
+    }
+
+    def 'Get the upstream status'() {
+        given: 'A request to get the upstream status'
+        when(employeeService.getUpstreamStatus()).thenReturn(UpstreamStatus.builder().circuitState('OPEN').build())
+
+        expect: 'A response with Http OK status and the circuit state'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees/upstreamStatus'))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath('$.circuitState').value('OPEN'))
+    }
+
+    def 'Get highest salary - roster unchanged since the last request'() {
+        given: 'A client holding the current roster ETag'
+        when(employeeService.getHighestSalaryOfEmployees(roster)).thenReturn(35000)
+
+        expect: 'A response with Http NOT MODIFIED status and no body'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees/highestSalary').header('If-None-Match', rosterETag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(''))
+    }
+
+    def 'Get highest salary - roster changed since the last request'() {
+        given: 'A client holding an older roster ETag'
+        when(employeeService.getHighestSalaryOfEmployees(roster)).thenReturn(35000)
+
+        expect: 'A response with Http OK status, the current ETag and cache directives'
+        mockMvc.perform(MockMvcRequestBuilders.get('/employees/highestSalary').header('If-None-Match', 'W/"29"'))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string('ETag', rosterETag))
+                .andExpect(MockMvcResultMatchers.header().string('Cache-Control', 'max-age=0, must-revalidate, private'))
+                .andExpect(MockMvcResultMatchers.content().string('35000'))
+    }
+
+    def 'Get List of all employees as Smile'() {
+        given: 'A client that accepts the Smile binary format'
+        when(employeeService.getEmployeesPage(roster, 0, null)).thenReturn(employeeList)
+
+        when: 'The get employees endpoint is called'
+        def result = mockMvc.perform(MockMvcRequestBuilders.get('/employees').accept('application/x-jackson-smile'))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType('application/x-jackson-smile'))
+                .andReturn()
+
+        then: 'The body decodes to the same employees'
+        def decoded = new ObjectMapper(new SmileFactory()).readValue(result.response.contentAsByteArray, Employee[].class)
+        decoded*.employeeName == ['Joe Tester']
+    }
 }
@@ -27,6 +27,18 @@ class EmployeeMocks {
                 "}"
     }
 
+    static String getAllEmployeeMultipleResponse() {
+        return "{\n" +
+                "\t\"status\": \"success\",\n" +
+                "\t\"data\": [\n" +
+                "\t\t{\"id\": \"1\", \"employee_name\": \"Tiger Nixon\", \"employee_salary\": \"320800\", \"employee_age\": \"61\", \"profile_image\": \"\"},\n" +
+                "\t\t{\"id\": \"2\", \"employee_name\": \"Garrett Winters\", \"employee_salary\": \"170750\", \"employee_age\": \"63\", \"profile_image\": \"\"},\n" +
+                "\t\t{\"id\": \"3\", \"employee_name\": \"Ashton Cox\", \"employee_salary\": \"86000\", \"employee_age\": \"66\", \"profile_image\": \"\"}\n" +
+                "\t],\n" +
+                "\t\"message\": \"Employee list successfully returned!\"\n" +
+                "}"
+    }
+
     static String getEmployeeByIdNotFound() {
         return "{\n" +
                 "    \"status\": \"success\",\n" +
@@ -0,0 +1,89 @@
+package com.example.rqchallenge.employees.service
+
+import spock.lang.Specification
+
+import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getEmployeeMock
+
+class AppLocalCacheTest extends Specification {
+
+    def 'Cached employee is returned and counted as a hit'() {
+        given: 'A cache holding an employee'
+        def appLocalCache = new AppLocalCache(100, 60000, 60000)
+        appLocalCache.addToEmployeeCacheById('1', getEmployeeMock())
+
+        when: 'The employee is read twice and an unknown ID once'
+        def first = appLocalCache.getFromEmployeeCacheById('1')
+        def second = appLocalCache.getFromEmployeeCacheById('1')
+        def missing = appLocalCache.getFromEmployeeCacheById('2')
+
+        then: 'Expect the hits and misses to be recorded'
+        first.employeeName == 'Joe Tester'
+        second.employeeName == 'Joe Tester'
+        missing == null
+        appLocalCache.employeeCacheStats.hitCount() == 2
+        appLocalCache.employeeCacheStats.missCount() == 1
+    }
+
+    def 'Not found marker is remembered separately from employees'() {
+        given: 'A cache holding a not found marker'
+        def appLocalCache = new AppLocalCache(100, 60000, 60000)
+        appLocalCache.addNotFoundToEmployeeCacheById('1000')
+
+        expect: 'The marker to be reported without returning an employee'
+        appLocalCache.getFromEmployeeCacheById('1000') == null
+        appLocalCache.isNotFoundInEmployeeCacheById('1000')
+        !appLocalCache.isNotFoundInEmployeeCacheById('1')
+    }
+
+    def 'Entries expire after their TTL'() {
+        given: 'A cache with a short TTL for not found markers'
+        def appLocalCache = new AppLocalCache(100, 60000, 1)
+        appLocalCache.addToEmployeeCacheById('1', getEmployeeMock())
+        appLocalCache.addNotFoundToEmployeeCacheById('1000')
+
+        when: 'The not found TTL has passed'
+        Thread.sleep(20)
+
+        then: 'Expect only the not found marker to have expired'
+        appLocalCache.getFromEmployeeCacheById('1') != null
+        !appLocalCache.isNotFoundInEmployeeCacheById('1000')
+    }
+
+    def 'Restored entries only live for what is left of their TTL'() {
+        given: 'A cache with a one minute TTL'
+        def appLocalCache = new AppLocalCache(100, 60000, 60000)
+
+        when: 'Employees from a recent and from an old snapshot are restored'
+        appLocalCache.restoreToEmployeeCacheById('1', getEmployeeMock(), System.currentTimeMillis() - 1000)
+        appLocalCache.restoreToEmployeeCacheById('2', getEmployeeMock(), System.currentTimeMillis() - 120000)
+
+        then: 'Expect only the employee whose TTL has not passed to be cached'
+        appLocalCache.getFromEmployeeCacheById('1') != null
+        appLocalCache.getFromEmployeeCacheById('2') == null
+    }
+
+    def 'Cache is bounded by its maximum size'() {
+        given: 'A cache with a maximum size of 10'
+        def appLocalCache = new AppLocalCache(10, 60000, 60000)
+
+        when: 'More employees than the maximum size are added'
+        (1..100).each { appLocalCache.addToEmployeeCacheById(String.valueOf(it), getEmployeeMock()) }
+        appLocalCache.cleanUp()
+
+        then: 'Expect entries to be evicted'
+        appLocalCache.employeeCacheSize <= 10
+        appLocalCache.employeeCacheStats.evictionCount() >= 90
+    }
+
+    def 'Removed employee is no longer cached'() {
+        given: 'A cache holding an employee'
+        def appLocalCache = new AppLocalCache(100, 60000, 60000)
+        appLocalCache.addToEmployeeCacheById('1', getEmployeeMock())
+
+        when: 'The employee is removed'
+        appLocalCache.removeFromEmployeeCacheById('1')
+
+        then: 'Expect the employee to be gone'
+        appLocalCache.getFromEmployeeCacheById('1') == null
+    }
+}
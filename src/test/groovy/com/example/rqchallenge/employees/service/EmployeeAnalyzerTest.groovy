@@ -0,0 +1,91 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.models.Employee
+import com.example.rqchallenge.employees.models.EmployeeCountBucket
+import spock.lang.Specification
+
+class EmployeeAnalyzerTest extends Specification {
+
+    private EmployeeAnalyzer employeeAnalyzer
+
+    def setup() {
+        employeeAnalyzer = new EmployeeAnalyzer(100000, [30, 60] as int[], [0.5, 0.9, 0.999] as double[], 10000)
+    }
+
+    def 'Statistics are computed over the roster'() {
+        given: 'A roster of four employees'
+        def roster = new EmployeeRoster([
+                employee(1, 320800, 61),
+                employee(2, 170750, 63),
+                employee(3, 86000, 22),
+                employee(4, 433060, 33)
+        ], 0L)
+
+        when: 'The roster is analyzed'
+        def analytics = employeeAnalyzer.analyze(roster)
+
+        then: 'Expect the salary statistics, nearest-rank percentiles, histogram and age bands'
+        analytics.count == 4
+        analytics.minSalary == 86000
+        analytics.maxSalary == 433060
+        analytics.meanSalary == 252652.5d
+        analytics.salaryPercentiles == [p50: 170750, p90: 433060, 'p99.9': 433060]
+        analytics.salaryHistogram == [
+                new EmployeeCountBucket(0, 100000, 1),
+                new EmployeeCountBucket(100000, 200000, 1),
+                new EmployeeCountBucket(200000, 300000, 0),
+                new EmployeeCountBucket(300000, 400000, 1),
+                new EmployeeCountBucket(400000, 500000, 1)
+        ]
+        analytics.minAge == 22
+        analytics.maxAge == 63
+        analytics.meanAge == 44.75d
+        analytics.ageBands == [
+                new EmployeeCountBucket(null, 30, 1),
+                new EmployeeCountBucket(30, 60, 1),
+                new EmployeeCountBucket(60, null, 2)
+        ]
+    }
+
+    def 'Parallel and sequential passes agree'() {
+        given: 'A roster larger than the parallel threshold'
+        def random = new Random(42)
+        def employees = (1..50000).collect { employee(it, random.nextInt(500000), 18 + random.nextInt(50)) }
+        def roster = new EmployeeRoster(employees, 0L)
+        def sequentialAnalyzer = new EmployeeAnalyzer(100000, [30, 60] as int[], [0.5, 0.9, 0.999] as double[], Integer.MAX_VALUE)
+
+        expect: 'The same analytics from both'
+        employeeAnalyzer.analyze(roster) == sequentialAnalyzer.analyze(roster)
+        employeeAnalyzer.analyze(roster).salaryHistogram*.count.sum() == 50000
+    }
+
+    def 'Analytics are reused until the roster version changes'() {
+        given: 'An analyzed roster'
+        def roster = new EmployeeRoster([employee(1, 320800, 61)], 0L)
+        def first = employeeAnalyzer.analyze(roster)
+
+        when: 'The same roster is analyzed again and then a new version of it'
+        def second = employeeAnalyzer.analyze(roster.withLoadedAt(1000L))
+        def updated = employeeAnalyzer.analyze(roster.withCreated(employee(2, 170750, 63)))
+
+        then: 'Expect the first result to be reused only for the unchanged version'
+        second.is(first)
+        updated.count == 2
+        updated.rosterVersion == roster.version + 1
+    }
+
+    def 'Empty roster has counts but no statistics'() {
+        when: 'An empty roster is analyzed'
+        def analytics = employeeAnalyzer.analyze(new EmployeeRoster([], 0L))
+
+        then: 'Expect zero counts'
+        analytics.count == 0
+        analytics.maxSalary == null
+        analytics.salaryHistogram.isEmpty()
+        analytics.ageBands*.count == [0L, 0L, 0L]
+    }
+
+    private static Employee employee(int id, int salary, int age) {
+        return new Employee(id, "Employee ${id}", salary, age, '')
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.exception.AllEmployeeLookupException
+import com.example.rqchallenge.employees.exception.EmployeeNotFoundException
+import com.example.rqchallenge.employees.models.Employee
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.apache.http.HttpResponse
+import org.apache.http.HttpVersion
+import org.apache.http.client.methods.HttpGet
+import org.apache.http.concurrent.FutureCallback
+import org.apache.http.entity.ByteArrayEntity
+import org.apache.http.entity.StringEntity
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient
+import org.apache.http.message.BasicHttpResponse
+import org.springframework.test.util.ReflectionTestUtils
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.zip.GZIPOutputStream
+
+import static com.example.rqchallenge.employees.mocks.EmployeeMocks.*
+
+class EmployeeAsyncServiceTest extends Specification {
+
+    private CloseableHttpAsyncClient closeableHttpAsyncClient
+    private AppLocalCache appLocalCache
+    private EmployeeRosterCache employeeRosterCache
+    private EmployeeAsyncService employeeAsyncService
+
+    def setup() {
+        closeableHttpAsyncClient = Mock()
+        appLocalCache = Mock()
+        employeeRosterCache = new EmployeeRosterCache()
+        employeeAsyncService = new EmployeeAsyncService(closeableHttpAsyncClient, new ObjectMapper(), appLocalCache,
+                employeeRosterCache, new EmployeeJsonDecoder(new ObjectMapper()), new UpstreamGuard(5, 10000, 500, 30000, 1000, 1),
+                new UpstreamMetrics(new SimpleMeterRegistry()), new UpstreamEndpoints(['http://some-test-url'], 1000),
+                new EmployeeLookupCoalescer(0, 64, 1))
+        ReflectionTestUtils.setField(employeeAsyncService, "timeoutMillis", 1000L)
+        ReflectionTestUtils.setField(employeeAsyncService, "decodeThreads", 2)
+        employeeAsyncService.init()
+    }
+
+    def cleanup() {
+        employeeAsyncService.shutdown()
+        employeeRosterCache.shutdown()
+    }
+
+    def 'Request to get all employees asynchronously'() {
+        given: 'An upstream that returns the employee list'
+        closeableHttpAsyncClient.execute(_ as HttpGet, _ as FutureCallback) >> { args ->
+            args[1].completed(response(200, getAllEmployeeMultipleResponse()))
+            null
+        }
+
+        when: 'The getAllEmployees method is called'
+        def employees = employeeAsyncService.getAllEmployees().get(1, TimeUnit.SECONDS)
+
+        then: 'Expect the employees to be returned'
+        employees*.employeeName == ['Tiger Nixon', 'Garrett Winters', 'Ashton Cox']
+    }
+
+    def 'The roster is decoded and published off the client I/O thread'() {
+        given: 'An upstream whose response is completed on the calling thread'
+        closeableHttpAsyncClient.execute(_ as HttpGet, _ as FutureCallback) >> { args ->
+            args[1].completed(response(200, getAllEmployeeMultipleResponse()))
+            null
+        }
+        def publishThread = new CompletableFuture<String>()
+        employeeRosterCache.addPublishListener { publishThread.complete(Thread.currentThread().name) }
+
+        when: 'The getAllEmployees method is called'
+        employeeAsyncService.getAllEmployees().get(1, TimeUnit.SECONDS)
+
+        then: 'Expect the roster to be published on a decode worker'
+        publishThread.get(1, TimeUnit.SECONDS).startsWith('employee-async-decode-')
+    }
+
+    def 'Request to get all employees asynchronously - gzip encoded response'() {
+        given: 'An upstream that returns a gzip compressed employee list'
+        def compressed = new ByteArrayOutputStream()
+        new GZIPOutputStream(compressed).withCloseable { it.write(getAllEmployeeMultipleResponse().bytes) }
+        def requests = []
+        closeableHttpAsyncClient.execute(_ as HttpGet, _ as FutureCallback) >> { args ->
+            requests << args[0]
+            def entity = new ByteArrayEntity(compressed.toByteArray())
+            entity.setContentEncoding('gzip')
+            def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, null)
+            response.setEntity(entity)
+            args[1].completed(response)
+            null
+        }
+
+        when: 'The getAllEmployees method is called'
+        def employees = employeeAsyncService.getAllEmployees().get(1, TimeUnit.SECONDS)
+
+        then: 'Expect compression to be requested and the employees to be decoded'
+        requests[0].getFirstHeader('Accept-Encoding').value == 'gzip'
+        employees*.employeeName == ['Tiger Nixon', 'Garrett Winters', 'Ashton Cox']
+    }
+
+    def 'Request to get all employees asynchronously - status code is not 200'() {
+        given: 'An upstream that fails'
+        closeableHttpAsyncClient.execute(_ as HttpGet, _ as FutureCallback) >> { args ->
+            args[1].completed(response(500, ''))
+            null
+        }
+
+        when: 'The getHighestSalaryOfEmployees method is called'
+        employeeAsyncService.getHighestSalaryOfEmployees().get(1, TimeUnit.SECONDS)
+
+        then: 'Expect the future to fail with an AllEmployeeLookupException'
+        def error = thrown(ExecutionException)
+        error.cause instanceof AllEmployeeLookupException
+        error.cause.message == 'An error occurred. Http status: [500]'
+    }
+
+    def 'Request to get employee by ID asynchronously - No employee found by ID'() {
+        given: 'An upstream that does not know the employee'
+        closeableHttpAsyncClient.execute(_ as HttpGet, _ as FutureCallback) >> { args ->
+            args[1].completed(response(200, getEmployeeByIdNotFound()))
+            null
+        }
+
+        when: 'The getEmployeeById method is called'
+        employeeAsyncService.getEmployeeById('1000').get(1, TimeUnit.SECONDS)
+
+        then: 'Expect the future to fail with an EmployeeNotFoundException and the miss to be cached'
+        1 * appLocalCache.addNotFoundToEmployeeCacheById('1000')
+        def error = thrown(ExecutionException)
+        error.cause instanceof EmployeeNotFoundException
+    }
+
+    def 'Request to get employee by ID asynchronously - upstream does not respond'() {
+        given: 'An upstream that never completes'
+        ReflectionTestUtils.setField(employeeAsyncService, "timeoutMillis", 50L)
+        closeableHttpAsyncClient.execute(_ as HttpGet, _ as FutureCallback) >> null
+
+        when: 'The getEmployeeById method is called'
+        employeeAsyncService.getEmployeeById('1').get(1, TimeUnit.SECONDS)
+
+        then: 'Expect the future to fail with a TimeoutException'
+        def error = thrown(ExecutionException)
+        error.cause instanceof TimeoutException
+    }
+
+    def 'Request to get employee by ID asynchronously - upstream does not respond, employee in the last known roster'() {
+        given: 'A roster that still contains the employee and an upstream that never completes'
+        ReflectionTestUtils.setField(employeeRosterCache, "maxStaleMillis", 60000L)
+        employeeRosterCache.restore([Employee.builder().id(1).employeeName('Tiger Nixon').build()], System.currentTimeMillis())
+        ReflectionTestUtils.setField(employeeAsyncService, "timeoutMillis", 50L)
+        closeableHttpAsyncClient.execute(_ as HttpGet, _ as FutureCallback) >> null
+
+        when: 'The getEmployeeById method is called'
+        def lookup = employeeAsyncService.getEmployeeById('1').get(1, TimeUnit.SECONDS)
+
+        then: 'Expect the employee from the roster, marked stale'
+        lookup.employee().employeeName == 'Tiger Nixon'
+        lookup.stale()
+    }
+
+    private static HttpResponse response(int statusCode, String body) {
+        def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, null)
+        response.setEntity(new StringEntity(body))
+        return response
+    }
+}
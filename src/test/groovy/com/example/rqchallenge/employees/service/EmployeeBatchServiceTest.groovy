@@ -0,0 +1,109 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.exception.EmployeeIdLookupException
+import com.example.rqchallenge.employees.exception.EmployeeNotFoundException
+import com.example.rqchallenge.employees.models.Employee
+import com.example.rqchallenge.employees.models.EmployeeLookupResult
+import org.springframework.test.util.ReflectionTestUtils
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getEmployeeMock
+
+class EmployeeBatchServiceTest extends Specification {
+
+    private EmployeeService employeeService
+    private AppLocalCache appLocalCache
+    private EmployeeBatchService employeeBatchService
+
+    def setup() {
+        employeeService = Mock()
+        appLocalCache = Mock()
+        employeeBatchService = new EmployeeBatchService(employeeService, appLocalCache)
+        ReflectionTestUtils.setField(employeeBatchService, "maxConcurrency", 4)
+        ReflectionTestUtils.setField(employeeBatchService, "maxConcurrencyPerBatch", 2)
+        ReflectionTestUtils.setField(employeeBatchService, "maxBatchSize", 3)
+        ReflectionTestUtils.setField(employeeBatchService, "batchTimeoutMillis", 5000L)
+        employeeBatchService.init()
+    }
+
+    def cleanup() {
+        employeeBatchService.shutdown()
+    }
+
+    def 'Batch lookup returns a result per ID'() {
+        given: 'One cached employee, one cached miss and two upstream lookups'
+        appLocalCache.getFromEmployeeCacheById('1') >> getEmployeeMock()
+        appLocalCache.isNotFoundInEmployeeCacheById('2') >> true
+        employeeService.getEmployeeById('3') >> { throw new EmployeeNotFoundException('Employee with ID 3 was not found') }
+        employeeService.getEmployeeById('4') >> Employee.builder().id(4).employeeName('Tiger Nixon').build()
+
+        when: 'The batch is looked up'
+        ReflectionTestUtils.setField(employeeBatchService, "maxBatchSize", 10)
+        def results = employeeBatchService.getEmployeesByIds(['1', '2', '3', '4', '4'])
+
+        then: 'Expect one result per distinct ID in request order'
+        results*.id == ['1', '2', '3', '4']
+        results*.status == [EmployeeLookupResult.Status.FOUND, EmployeeLookupResult.Status.NOT_FOUND,
+                            EmployeeLookupResult.Status.NOT_FOUND, EmployeeLookupResult.Status.FOUND]
+        results[0].employee.employeeName == 'Joe Tester'
+        results[3].employee.employeeName == 'Tiger Nixon'
+    }
+
+    def 'Batch lookup reports upstream errors per ID'() {
+        given: 'An upstream lookup that fails'
+        employeeService.getEmployeeById('1') >> { throw new EmployeeIdLookupException('An error occurred. Http status: [500]') }
+
+        when: 'The batch is looked up'
+        def results = employeeBatchService.getEmployeesByIds(['1'])
+
+        then: 'Expect an error result instead of an exception'
+        results[0].status == EmployeeLookupResult.Status.ERROR
+        results[0].error == 'An error occurred. Http status: [500]'
+    }
+
+    def 'Batch lookup is limited to its share of the pool'() {
+        given: 'Slow upstream lookups that record how many run at once'
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        employeeService.getEmployeeById(_ as String) >> { String employeeId ->
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max)
+            Thread.sleep(50)
+            running.decrementAndGet()
+            Employee.builder().id(Integer.parseInt(employeeId)).build()
+        }
+
+        when: 'A batch of three misses is looked up'
+        def results = employeeBatchService.getEmployeesByIds(['1', '2', '3'])
+
+        then: 'Expect every ID to be found with at most two lookups at a time'
+        results*.status == [EmployeeLookupResult.Status.FOUND] * 3
+        maxRunning.get() == 2
+    }
+
+    def 'Lookups still queued when the batch times out are not sent upstream'() {
+        given: 'One lookup at a time and a first lookup slower than the batch timeout'
+        ReflectionTestUtils.setField(employeeBatchService, "maxConcurrencyPerBatch", 1)
+        ReflectionTestUtils.setField(employeeBatchService, "batchTimeoutMillis", 100L)
+
+        when: 'A batch of three misses is looked up and the first lookup has finished'
+        def results = employeeBatchService.getEmployeesByIds(['1', '2', '3'])
+        Thread.sleep(400)
+
+        then: 'Expect every ID to time out and only the first to reach the upstream'
+        1 * employeeService.getEmployeeById('1') >> { Thread.sleep(300); getEmployeeMock() }
+        0 * employeeService.getEmployeeById('2')
+        0 * employeeService.getEmployeeById('3')
+        results*.error == ['Timed out looking up employee'] * 3
+    }
+
+    def 'Batch lookup rejects batches over the maximum size'() {
+        when: 'A batch larger than the maximum size is looked up'
+        employeeBatchService.getEmployeesByIds(['1', '2', '3', '4'])
+
+        then: 'Expect an EmployeeIdLookupException to be thrown'
+        def error = thrown(EmployeeIdLookupException)
+        error.message == 'A batch cannot contain more than 3 employee IDs'
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.exception.BulkRequestException
+import com.example.rqchallenge.employees.exception.EmployeeCreationException
+import com.example.rqchallenge.employees.exception.EmployeeDeleteException
+import com.example.rqchallenge.employees.models.BulkOperationResult
+import com.example.rqchallenge.employees.models.Employee
+import org.springframework.test.util.ReflectionTestUtils
+import spock.lang.Specification
+
+class EmployeeBulkServiceTest extends Specification {
+
+    private EmployeeService employeeService
+    private EmployeeBulkService employeeBulkService
+
+    def setup() {
+        employeeService = Mock()
+        employeeBulkService = new EmployeeBulkService(employeeService)
+        ReflectionTestUtils.setField(employeeBulkService, "maxInFlight", 4)
+        ReflectionTestUtils.setField(employeeBulkService, "maxRequestsPerSecond", 0d)
+        ReflectionTestUtils.setField(employeeBulkService, "maxBulkSize", 3)
+        employeeBulkService.init()
+    }
+
+    def cleanup() {
+        employeeBulkService.shutdown()
+    }
+
+    def 'Bulk create reports each employee and continues past failures'() {
+        given: 'Two creates that succeed and one that fails'
+        employeeService.createEmployee([name: 'Joe Tester']) >> Employee.builder().id(1).employeeName('Joe Tester').build()
+        employeeService.createEmployee([name: 'Bad Input']) >> { throw new EmployeeCreationException('An error occurred. Http status: [500]') }
+        employeeService.createEmployee([name: 'Tiger Nixon']) >> Employee.builder().id(2).employeeName('Tiger Nixon').build()
+
+        when: 'The employees are created in bulk'
+        def results = employeeBulkService.createEmployees([[name: 'Joe Tester'], [name: 'Bad Input'], [name: 'Tiger Nixon']])
+
+        then: 'Expect a result per employee in request order'
+        results*.index == [0, 1, 2]
+        results*.status == [BulkOperationResult.Status.SUCCEEDED, BulkOperationResult.Status.FAILED, BulkOperationResult.Status.SUCCEEDED]
+        results[0].id == '1'
+        results[1].error == 'An error occurred. Http status: [500]'
+        results[2].employee.employeeName == 'Tiger Nixon'
+    }
+
+    def 'Bulk delete reports each employee and continues past failures'() {
+        given: 'One delete that succeeds and one that fails'
+        employeeService.deleteEmployeeById('1') >> '1'
+        employeeService.deleteEmployeeById('2') >> { throw new EmployeeDeleteException('An error occurred. Http status: [500]') }
+
+        when: 'The employees are deleted in bulk'
+        def results = employeeBulkService.deleteEmployeesByIds(['1', '2'])
+
+        then: 'Expect a result per employee in request order'
+        results*.status == [BulkOperationResult.Status.SUCCEEDED, BulkOperationResult.Status.FAILED]
+        results*.id == ['1', '2']
+    }
+
+    def 'Bulk request over the maximum size is rejected'() {
+        when: 'Too many employees are deleted in bulk'
+        employeeBulkService.deleteEmployeesByIds(['1', '2', '3', '4'])
+
+        then: 'Expect a BulkRequestException to be thrown'
+        def error = thrown(BulkRequestException)
+        error.message == 'A bulk request cannot contain more than 3 items'
+    }
+
+    def 'Request pacer spaces requests to the configured rate'() {
+        given: 'A pacer allowing 50 requests per second'
+        def requestPacer = new RequestPacer(50)
+
+        when: 'Six requests are paced'
+        def start = System.nanoTime()
+        6.times { requestPacer.acquire() }
+        def elapsedMillis = (System.nanoTime() - start) / 1_000_000
+
+        then: 'Expect the last request to start at least five intervals later'
+        elapsedMillis >= 95
+    }
+}
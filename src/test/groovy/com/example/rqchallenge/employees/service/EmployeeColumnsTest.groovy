@@ -0,0 +1,92 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.models.Employee
+import spock.lang.Specification
+
+class EmployeeColumnsTest extends Specification {
+
+    private EmployeeColumns employeeColumns
+
+    def setup() {
+        employeeColumns = EmployeeColumns.of([
+                new Employee(7, 'Tiger Nixon', 320800, 61, 'tiger.png'),
+                new Employee(3, new String('Tiger Nixon'), 170750, 63, null),
+                new Employee(5, null, 86000, 66, 'ashton-é.png')
+        ])
+    }
+
+    def 'Employees are materialized from the columns'() {
+        expect: 'The same employees that the columns were built from'
+        employeeColumns.asList() == [
+                new Employee(7, 'Tiger Nixon', 320800, 61, 'tiger.png'),
+                new Employee(3, 'Tiger Nixon', 170750, 63, null),
+                new Employee(5, null, 86000, 66, 'ashton-é.png')
+        ]
+        employeeColumns.asList().is(employeeColumns.asList())
+    }
+
+    def 'Equal names share one instance'() {
+        expect: 'The same String for both rows'
+        employeeColumns.getName(0).is(employeeColumns.getName(1))
+    }
+
+    def 'Rows are looked up by id'() {
+        expect: 'The row of the employee, or -1 if it is missing'
+        employeeColumns.rowOf(id) == row
+
+        where:
+        id | row
+        7  | 0
+        3  | 1
+        5  | 2
+        4  | -1
+        -1 | -1
+    }
+
+    def 'Appended employee becomes the last row'() {
+        when: 'An employee is appended'
+        def updated = employeeColumns.withAppended(new Employee(1, 'Airi Satou', 162700, 33, null))
+
+        then: 'Expect the employee in the last row and the original columns unchanged'
+        updated.size() == 4
+        updated.materialize(3) == new Employee(1, 'Airi Satou', 162700, 33, null)
+        updated.rowOf(1) == 3
+        updated.getProfileImage(2) == 'ashton-é.png'
+        employeeColumns.size() == 3
+    }
+
+    def 'Removed row shifts the following rows'() {
+        when: 'The first row is removed'
+        def updated = employeeColumns.withoutRow(0)
+
+        then: 'Expect the remaining employees with their profile images intact'
+        updated.asList() == [
+                new Employee(3, 'Tiger Nixon', 170750, 63, null),
+                new Employee(5, null, 86000, 66, 'ashton-é.png')
+        ]
+        updated.rowOf(7) == -1
+        updated.rowOf(5) == 1
+    }
+
+    def 'Equal content has an equal hash'() {
+        expect: 'Columns rebuilt from the same employees hash the same, and different columns differently'
+        EmployeeColumns.of(employeeColumns.asList()).contentHash() == employeeColumns.contentHash()
+        employeeColumns.withoutRow(2).contentHash() != employeeColumns.contentHash()
+    }
+
+    def 'Equal content in a different order has a different hash'() {
+        expect: 'Columns holding the same employees reversed to hash differently'
+        EmployeeColumns.of(employeeColumns.asList().reverse()).contentHash() != employeeColumns.contentHash()
+    }
+
+    def 'Hash is updated by the links of the appended or removed row'() {
+        when: 'A row is appended and another removed'
+        def appended = employeeColumns.withAppended(new Employee(1, 'Airi Satou', 162700, 33, null))
+        def removed = employeeColumns.withoutRow(1)
+
+        then: 'Expect the hash to change by the links to and from that row'
+        appended.contentHash() == employeeColumns.contentHash() + appended.linkHash(3)
+        removed.contentHash() == employeeColumns.contentHash() - employeeColumns.linkHash(1) - employeeColumns.linkHash(2) +
+                removed.linkHash(1)
+    }
+}
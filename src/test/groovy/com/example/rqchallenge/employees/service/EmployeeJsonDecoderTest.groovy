@@ -0,0 +1,77 @@
+package com.example.rqchallenge.employees.service
+
+import com.fasterxml.jackson.core.JsonProcessingException
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Specification
+
+import static com.example.rqchallenge.employees.mocks.EmployeeMocks.*
+
+class EmployeeJsonDecoderTest extends Specification {
+
+    private EmployeeJsonDecoder employeeJsonDecoder = new EmployeeJsonDecoder(new ObjectMapper())
+
+    def 'Decode the list of employees with numeric fields sent as strings'() {
+        when: 'The all employees response is decoded'
+        def employees = employeeJsonDecoder.decodeEmployeeList(toStream(getAllEmployeeResponse()))
+
+        then: 'Expect the employee fields to be mapped'
+        employees.size() == 1
+        employees[0].id == 1
+        employees[0].employeeName == 'Tiger Nixon'
+        employees[0].employeeSalary == 320800
+        employees[0].employeeAge == 61
+        employees[0].profileImage == ''
+    }
+
+    def 'Decode an empty list of employees'() {
+        expect: 'An empty list to be returned'
+        employeeJsonDecoder.decodeEmployeeList(toStream(getAllEmployeeEmptyResponse())).isEmpty()
+    }
+
+    def 'Decode a list response without a data array'() {
+        when: 'A response without a data array is decoded'
+        employeeJsonDecoder.decodeEmployeeList(toStream(getEmployeeByIdNotFound()))
+
+        then: 'Expect a JsonProcessingException to be thrown'
+        thrown(JsonProcessingException)
+    }
+
+    def 'Decode a single employee'() {
+        when: 'The employee by ID responses are decoded'
+        def found = employeeJsonDecoder.decodeEmployee(toStream(getEmployeeByIdFound()))
+        def notFound = employeeJsonDecoder.decodeEmployee(toStream(getEmployeeByIdNotFound()))
+
+        then: 'Expect the found employee to be mapped and the missing one to be null'
+        found.employeeName == 'Tiger Nixon'
+        found.employeeAge == 61
+        notFound == null
+    }
+
+    def 'Decode a created employee'() {
+        when: 'The create employee response is decoded'
+        def employee = employeeJsonDecoder.decodeEmployee(toStream(getCreateEmployeeResponse()))
+
+        then: 'Expect the create shape to be mapped'
+        employee.id == 4111
+        employee.employeeName == 'Joe Tester'
+        employee.employeeSalary == 35000
+        employee.employeeAge == 35
+    }
+
+    def 'Decode a delete result'() {
+        expect: 'The data field to be returned'
+        employeeJsonDecoder.decodeDeleteResult(toStream(getDeleteEmployeeResponse())) == '25'
+    }
+
+    def 'Decode an empty payload'() {
+        when: 'An empty payload is decoded'
+        employeeJsonDecoder.decodeEmployee(new ByteArrayInputStream(new byte[0]))
+
+        then: 'Expect a JsonProcessingException to be thrown'
+        thrown(JsonProcessingException)
+    }
+
+    private static InputStream toStream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes())
+    }
+}
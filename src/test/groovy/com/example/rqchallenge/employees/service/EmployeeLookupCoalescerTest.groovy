@@ -0,0 +1,126 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.models.Employee
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class EmployeeLookupCoalescerTest extends Specification {
+
+    private EmployeeLookupCoalescer employeeLookupCoalescer
+
+    def cleanup() {
+        employeeLookupCoalescer.shutdown()
+    }
+
+    def 'Concurrent misses for the same ID share one lookup'() {
+        given: 'A lookup that waits until it is released'
+        employeeLookupCoalescer = new EmployeeLookupCoalescer(5, 64, 4)
+        def release = new CountDownLatch(1)
+        def loads = new AtomicInteger()
+        def loader = { String employeeId ->
+            loads.incrementAndGet()
+            release.await(5, TimeUnit.SECONDS)
+            employee(employeeId)
+        } as EmployeeLookupCoalescer.Loader
+
+        when: 'Two callers miss the same ID before the lookup completes'
+        def first = employeeLookupCoalescer.lookup('1', loader)
+        def second = employeeLookupCoalescer.lookup('1', loader)
+        release.countDown()
+
+        then: 'Expect one upstream lookup whose result both callers get'
+        EmployeeLookupCoalescer.await(first) == employee('1')
+        EmployeeLookupCoalescer.await(second) == employee('1')
+        loads.get() == 1
+        employeeLookupCoalescer.loadedCount == 1
+        employeeLookupCoalescer.coalescedCount == 1
+    }
+
+    def 'An isolated miss is sent without waiting for the window'() {
+        given: 'A window far longer than the test'
+        employeeLookupCoalescer = new EmployeeLookupCoalescer(60000, 64, 4)
+        def loader = { String employeeId -> employee(employeeId) } as EmployeeLookupCoalescer.Loader
+
+        when: 'A single ID is looked up'
+        def lookup = employeeLookupCoalescer.lookup('1', loader)
+
+        then: 'Expect it to resolve at once in a batch of its own'
+        lookup.get(5, TimeUnit.SECONDS) == employee('1')
+        employeeLookupCoalescer.batchCount == 1
+    }
+
+    def 'Misses following a lookup within the window are sent in one batch'() {
+        given: 'A long enough batch window'
+        employeeLookupCoalescer = new EmployeeLookupCoalescer(50, 64, 4)
+        def loader = { String employeeId -> employee(employeeId) } as EmployeeLookupCoalescer.Loader
+
+        when: 'Three different IDs are looked up'
+        def lookups = ['1', '2', '3'].collect { employeeLookupCoalescer.lookup(it, loader) }
+
+        then: 'Expect the first ID to be sent at once and the other two by a single flush'
+        lookups.collect { EmployeeLookupCoalescer.await(it) } == [employee('1'), employee('2'), employee('3')]
+        employeeLookupCoalescer.batchCount == 2
+        employeeLookupCoalescer.loadedCount == 3
+    }
+
+    def 'A full batch is sent before the window ends'() {
+        given: 'A window far longer than the test and a batch of two'
+        employeeLookupCoalescer = new EmployeeLookupCoalescer(60000, 2, 4)
+        def loader = { String employeeId -> employee(employeeId) } as EmployeeLookupCoalescer.Loader
+
+        when: 'Three different IDs are looked up'
+        def lookups = ['1', '2', '3'].collect { employeeLookupCoalescer.lookup(it, loader) }
+
+        then: 'Expect the first to be sent at once and the other two without waiting for the window'
+        lookups.collect { it.get(5, TimeUnit.SECONDS) } == [employee('1'), employee('2'), employee('3')]
+        employeeLookupCoalescer.batchCount == 2
+    }
+
+    def 'A failed lookup is rethrown and the next miss looks up again'() {
+        given: 'A lookup that fails once'
+        employeeLookupCoalescer = new EmployeeLookupCoalescer(0, 64, 1)
+        def loads = new AtomicInteger()
+        def loader = { String employeeId ->
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException('Connection reset')
+            }
+            employee(employeeId)
+        } as EmployeeLookupCoalescer.Loader
+
+        when: 'The ID is looked up'
+        EmployeeLookupCoalescer.await(employeeLookupCoalescer.lookup('1', loader))
+
+        then: 'Expect the failure of the loader'
+        def e = thrown(IOException)
+        e.message == 'Connection reset'
+
+        and: 'Expect a new lookup to reach the loader again'
+        EmployeeLookupCoalescer.await(employeeLookupCoalescer.lookup('1', loader)) == employee('1')
+        loads.get() == 2
+    }
+
+    def 'Concurrent async misses for the same ID share one lookup'() {
+        given: 'An async lookup that has not completed yet'
+        employeeLookupCoalescer = new EmployeeLookupCoalescer(0, 64, 1)
+        def upstream = new CompletableFuture<Employee>()
+        def loads = new AtomicInteger()
+
+        when: 'Two callers miss the same ID'
+        def first = employeeLookupCoalescer.lookupAsync('1', { loads.incrementAndGet(); upstream })
+        def second = employeeLookupCoalescer.lookupAsync('1', { loads.incrementAndGet(); upstream })
+        first.cancel(false)
+        upstream.complete(employee('1'))
+
+        then: 'Expect one lookup, unaffected by one caller giving up'
+        second.get(5, TimeUnit.SECONDS) == employee('1')
+        loads.get() == 1
+    }
+
+    private static Employee employee(String employeeId) {
+        new Employee(Integer.parseInt(employeeId), 'Tiger Nixon', 320800, 61, null)
+    }
+}
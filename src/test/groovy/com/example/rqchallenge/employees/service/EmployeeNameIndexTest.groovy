@@ -0,0 +1,92 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.models.Employee
+import spock.lang.Specification
+
+class EmployeeNameIndexTest extends Specification {
+
+    private EmployeeNameIndex employeeNameIndex
+
+    def setup() {
+        employeeNameIndex = new EmployeeNameIndex(EmployeeColumns.of([
+                employee(1, 'Tiger Nixon'),
+                employee(2, 'Garrett Winters'),
+                employee(3, 'Ashton Cox'),
+                employee(4, 'Cedric Kelly'),
+                employee(5, 'Airi Satou'),
+                employee(6, 'tiger woods'),
+                employee(7, null)
+        ]))
+    }
+
+    def 'Search names containing a string'() {
+        expect: 'The employees whose name contains the string to be returned in roster order'
+        names(employeeNameIndex.search(query, ignoreCase, false, Integer.MAX_VALUE)) == expected
+
+        where:
+        query    | ignoreCase || expected
+        'Tiger'  | false      || ['Tiger Nixon']
+        'tiger'  | true       || ['Tiger Nixon', 'tiger woods']
+        'ton'    | false      || ['Ashton Cox']
+        'TON'    | false      || []
+        'TON'    | true       || ['Ashton Cox']
+        'er'     | false      || ['Tiger Nixon', 'Garrett Winters', 'tiger woods']
+        'zzz'    | true       || []
+        'Nixons' | false      || []
+    }
+
+    def 'Search names starting with a string'() {
+        expect: 'The employees whose name starts with the string to be returned in name order'
+        names(employeeNameIndex.search(query, ignoreCase, true, Integer.MAX_VALUE)) == expected
+
+        where:
+        query | ignoreCase || expected
+        'Ti'  | false      || ['Tiger Nixon']
+        'ti'  | true       || ['Tiger Nixon', 'tiger woods']
+        'a'   | true       || ['Airi Satou', 'Ashton Cox']
+        'Cox' | true       || []
+    }
+
+    def 'Search results are limited'() {
+        expect: 'No more than the limit to be returned'
+        employeeNameIndex.search('e', true, false, 2).size() == 2
+        employeeNameIndex.search('tiger', true, false, 1).size() == 1
+    }
+
+    def 'Empty search matches every employee'() {
+        expect: 'All employees to be returned'
+        employeeNameIndex.search('', false, false, Integer.MAX_VALUE).size() == 7
+    }
+
+    def 'Index updated by creates and deletes matches an index built from the same employees'() {
+        given: 'Columns and their index'
+        def columns = EmployeeColumns.of([employee(1, 'Tiger Nixon'), employee(2, 'Garrett Winters'), employee(3, 'Ashton Cox')])
+        def index = new EmployeeNameIndex(columns)
+
+        when: 'Employees are added and one is removed'
+        columns = columns.withAppended(employee(4, 'Tiger Woods'))
+        index = index.withAdded(columns)
+        columns = columns.withAppended(employee(5, 'Airi Satou'))
+        index = index.withAdded(columns)
+        columns = columns.withoutRow(0)
+        index = index.withRemoved(columns, 0)
+        def rebuilt = new EmployeeNameIndex(columns)
+
+        then: 'Expect the same results from both indexes'
+        ['tiger', 'ton', 'er', 'a', 'woo', 'nixon'].every { query ->
+            [true, false].every { prefix ->
+                names(index.search(query, true, prefix, Integer.MAX_VALUE)) == names(rebuilt.search(query, true, prefix, Integer.MAX_VALUE))
+            }
+        }
+        names(index.search('tiger', true, false, Integer.MAX_VALUE)) == ['Tiger Woods']
+        names(index.search('a', true, true, Integer.MAX_VALUE)) == ['Airi Satou', 'Ashton Cox']
+    }
+
+    private static Employee employee(int id, String name) {
+        return Employee.builder().id(id).employeeName(name).build()
+    }
+
+    private static List<String> names(List<Employee> employees) {
+        return employees.collect { it.employeeName }
+    }
+}
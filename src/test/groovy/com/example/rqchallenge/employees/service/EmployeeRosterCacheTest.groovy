@@ -0,0 +1,309 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.exception.AllEmployeeLookupException
+import com.example.rqchallenge.employees.models.Employee
+import org.springframework.test.util.ReflectionTestUtils
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getEmployeesListMock
+
+class EmployeeRosterCacheTest extends Specification {
+
+    private EmployeeRosterCache employeeRosterCache
+
+    def setup() {
+        employeeRosterCache = new EmployeeRosterCache()
+        ReflectionTestUtils.setField(employeeRosterCache, "ttlMillis", 60000L)
+        ReflectionTestUtils.setField(employeeRosterCache, "refreshAheadMillis", 45000L)
+    }
+
+    def cleanup() {
+        employeeRosterCache.shutdown()
+    }
+
+    def 'Roster is loaded once and then served from the snapshot'() {
+        given: 'A loader that counts upstream calls'
+        def loads = new AtomicInteger()
+        def loader = { loads.incrementAndGet(); getEmployeesListMock() } as EmployeeRosterCache.RosterLoader
+
+        when: 'The roster is requested several times within the TTL'
+        def first = employeeRosterCache.getRoster(loader)
+        def second = employeeRosterCache.getRoster(loader)
+
+        then: 'Expect a single upstream load and a hit on the second call'
+        loads.get() == 1
+        first.is(second)
+        employeeRosterCache.missCount == 1
+        employeeRosterCache.hitCount == 1
+    }
+
+    def 'Roster is reloaded once the TTL has expired'() {
+        given: 'A roster cache with no TTL'
+        ReflectionTestUtils.setField(employeeRosterCache, "ttlMillis", 0L)
+        def loads = new AtomicInteger()
+        def loader = { loads.incrementAndGet(); getEmployeesListMock() } as EmployeeRosterCache.RosterLoader
+
+        when: 'The roster is requested twice'
+        employeeRosterCache.getRoster(loader)
+        employeeRosterCache.getRoster(loader)
+
+        then: 'Expect two upstream loads'
+        loads.get() == 2
+        employeeRosterCache.missCount == 2
+    }
+
+    def 'Roster is refreshed in the background once past the refresh-ahead threshold'() {
+        given: 'A roster cache that refreshes ahead immediately'
+        ReflectionTestUtils.setField(employeeRosterCache, "refreshAheadMillis", 0L)
+        def refreshed = new CountDownLatch(2)
+        def loader = { refreshed.countDown(); getEmployeesListMock() } as EmployeeRosterCache.RosterLoader
+
+        when: 'The roster is requested twice'
+        employeeRosterCache.getRoster(loader)
+        employeeRosterCache.getRoster(loader)
+
+        then: 'Expect the second call to be a hit that triggers a background reload'
+        refreshed.await(5, TimeUnit.SECONDS)
+        employeeRosterCache.hitCount == 1
+    }
+
+    def 'Concurrent misses share a single in-flight load'() {
+        given: 'A slow loader'
+        def loads = new AtomicInteger()
+        def release = new CountDownLatch(1)
+        def loader = {
+            loads.incrementAndGet()
+            release.await(5, TimeUnit.SECONDS)
+            getEmployeesListMock()
+        } as EmployeeRosterCache.RosterLoader
+        def executor = Executors.newFixedThreadPool(4)
+
+        when: 'Several callers request the roster at the same time'
+        def futures = (1..4).collect { executor.submit({ employeeRosterCache.getRoster(loader) } as Callable) }
+        Thread.sleep(200)
+        release.countDown()
+        def results = futures.collect { it.get(5, TimeUnit.SECONDS) }
+
+        then: 'Expect a single upstream load shared by every caller'
+        loads.get() == 1
+        results.every { it.employees.size() == 1 }
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def 'Concurrent hits past the refresh-ahead threshold start a single background reload'() {
+        given: 'A loaded roster and a background reload that waits until it is released'
+        def loads = new AtomicInteger()
+        def release = new CountDownLatch(1)
+        def loader = {
+            if (loads.incrementAndGet() > 1) {
+                release.await(5, TimeUnit.SECONDS)
+            }
+            getEmployeesListMock()
+        } as EmployeeRosterCache.RosterLoader
+        employeeRosterCache.getRoster(loader)
+        ReflectionTestUtils.setField(employeeRosterCache, "refreshAheadMillis", 0L)
+        def executor = Executors.newFixedThreadPool(8)
+
+        when: 'Many callers hit the roster at the same time while the reload is running'
+        def futures = (1..32).collect { executor.submit({ employeeRosterCache.getRoster(loader) } as Callable) }
+        futures.each { it.get(5, TimeUnit.SECONDS) }
+        release.countDown()
+
+        then: 'Expect exactly one upstream call for the reload'
+        new PollingConditions(timeout: 5).eventually {
+            assert employeeRosterCache.refreshCount == 1
+        }
+        loads.get() == 2
+        employeeRosterCache.hitCount == 32
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def 'Load errors are propagated and not cached'() {
+        given: 'A loader that fails'
+        def loader = { throw new AllEmployeeLookupException('An error occurred. Http status: [500]') } as EmployeeRosterCache.RosterLoader
+
+        when: 'The roster is requested'
+        employeeRosterCache.getRoster(loader)
+
+        then: 'Expect the loader error to be thrown'
+        def error = thrown(AllEmployeeLookupException)
+        error.message == 'An error occurred. Http status: [500]'
+    }
+
+    def 'Expired roster is served stale when the reload fails'() {
+        given: 'An expired roster within the max-stale age'
+        ReflectionTestUtils.setField(employeeRosterCache, "ttlMillis", 0L)
+        ReflectionTestUtils.setField(employeeRosterCache, "maxStaleMillis", 60000L)
+        def loaded = employeeRosterCache.getRoster({ getEmployeesListMock() } as EmployeeRosterCache.RosterLoader)
+        def failingLoader = { throw new AllEmployeeLookupException('An error occurred. Http status: [429]') } as EmployeeRosterCache.RosterLoader
+
+        when: 'The reload fails'
+        def roster = employeeRosterCache.getRoster(failingLoader)
+
+        then: 'Expect the previous roster to be served and flagged as expired'
+        roster.is(loaded)
+        employeeRosterCache.isExpired(roster)
+        employeeRosterCache.staleCount == 1
+        employeeRosterCache.findLastKnown(0).employeeName == 'Joe Tester'
+    }
+
+    def 'Restored roster keeps its age, is reloaded at startup and is only served stale once expired'() {
+        given: 'A reload that fails and a snapshot taken an hour ago'
+        ReflectionTestUtils.setField(employeeRosterCache, "maxStaleMillis", 7200000L)
+        def reloadAttempted = new CountDownLatch(1)
+        def failingLoader = {
+            reloadAttempted.countDown()
+            throw new AllEmployeeLookupException('An error occurred. Http status: [503]')
+        } as EmployeeRosterCache.RosterLoader
+        employeeRosterCache.scheduleReconcile(failingLoader)
+        def takenAt = System.currentTimeMillis() - 3600000L
+
+        when: 'The roster is restored and then requested'
+        employeeRosterCache.restore(getEmployeesListMock(), takenAt)
+        def startupReload = reloadAttempted.await(5, TimeUnit.SECONDS)
+        def roster = employeeRosterCache.getRoster(failingLoader)
+
+        then: 'Expect a reload at startup and the restored roster served stale with its real age'
+        startupReload
+        roster.loadedAt == takenAt
+        employeeRosterCache.isExpired(roster)
+        employeeRosterCache.staleCount == 1
+        employeeRosterCache.hitCount == 0
+    }
+
+    def 'Restored roster older than the TTL is served without waiting on the reload'() {
+        given: 'A snapshot taken an hour ago and a reload that is slow to answer'
+        ReflectionTestUtils.setField(employeeRosterCache, "maxStaleMillis", 7200000L)
+        def upstreamAnswers = new CountDownLatch(1)
+        def loadThreads = Collections.synchronizedList([])
+        def slowLoader = {
+            loadThreads << Thread.currentThread().name
+            upstreamAnswers.await(5, TimeUnit.SECONDS)
+            [new Employee(7, 'Tiger Nixon', 320800, 61, '')]
+        } as EmployeeRosterCache.RosterLoader
+        def takenAt = System.currentTimeMillis() - 3600000L
+        employeeRosterCache.restore(getEmployeesListMock(), takenAt)
+
+        when: 'The roster is requested before the upstream answers'
+        def roster = employeeRosterCache.getRoster(slowLoader)
+        upstreamAnswers.countDown()
+
+        then: 'Expect the restored roster marked stale, and the reload to replace it in the background'
+        roster.loadedAt == takenAt
+        employeeRosterCache.isExpired(roster)
+        employeeRosterCache.staleCount == 1
+        employeeRosterCache.missCount == 0
+        new PollingConditions(timeout: 5).eventually {
+            assert employeeRosterCache.currentRoster.employees*.id == [7]
+        }
+        loadThreads == ['employee-roster-refresh']
+    }
+
+    def 'Restored roster older than the max-stale age is not served'() {
+        given: 'A snapshot taken two hours ago and a max-stale age of one hour'
+        ReflectionTestUtils.setField(employeeRosterCache, "maxStaleMillis", 3600000L)
+        employeeRosterCache.restore(getEmployeesListMock(), System.currentTimeMillis() - 7200000L)
+
+        when: 'The roster is requested and the reload fails'
+        employeeRosterCache.getRoster({ throw new AllEmployeeLookupException('An error occurred. Http status: [503]') } as EmployeeRosterCache.RosterLoader)
+
+        then: 'Expect the load error instead of the restored roster'
+        thrown(AllEmployeeLookupException)
+        employeeRosterCache.findLastKnown(0) == null
+    }
+
+    def 'Roster reported unchanged by the loader is kept with a new load time'() {
+        given: 'A loaded roster and a TTL that has expired'
+        ReflectionTestUtils.setField(employeeRosterCache, "ttlMillis", 0L)
+        def loaded = employeeRosterCache.getRoster({ getEmployeesListMock() } as EmployeeRosterCache.RosterLoader)
+
+        when: 'The loader returns the employees of the current roster'
+        def revalidated = employeeRosterCache.getRoster({ employeeRosterCache.currentRoster.employees } as EmployeeRosterCache.RosterLoader)
+
+        then: 'Expect the same indexes and fingerprint'
+        !revalidated.is(loaded)
+        revalidated.nameIndex.is(loaded.nameIndex)
+        revalidated.fingerprint == loaded.fingerprint
+        revalidated.fingerprint == new EmployeeRoster(getEmployeesListMock(), 0L).fingerprint
+    }
+
+    def 'Creates and deletes publish new roster versions'() {
+        given: 'A loaded roster'
+        def loaded = employeeRosterCache.getRoster({ getEmployeesListMock() } as EmployeeRosterCache.RosterLoader)
+
+        when: 'An employee is created and another deleted'
+        employeeRosterCache.applyCreated(new Employee(7, 'Tiger Nixon', 320800, 61, ''))
+        def created = employeeRosterCache.currentRoster
+        employeeRosterCache.applyDeleted(0)
+        def deleted = employeeRosterCache.currentRoster
+
+        then: 'Expect each change in its own version, visible to search and salary queries'
+        created.version == loaded.version + 1
+        created.nameIndex.search('Tiger', false, false, 10)*.id == [7]
+        created.salaryRanking.highestSalary.asInt == 320800
+        deleted.version == loaded.version + 2
+        deleted.employees*.id == [7]
+        loaded.employees*.id == [0]
+    }
+
+    def 'Creates and deletes keep the fingerprint equal to a roster built from the same employees'() {
+        given: 'A loaded roster'
+        employeeRosterCache.getRoster({ getEmployeesListMock() } as EmployeeRosterCache.RosterLoader)
+
+        when: 'Employees are created and deleted'
+        employeeRosterCache.applyCreated(new Employee(7, 'Tiger Nixon', 320800, 61, null))
+        employeeRosterCache.applyCreated(new Employee(8, 'Garrett Winters', 170750, 63, 'garrett.png'))
+        employeeRosterCache.applyCreated(new Employee(9, 'Ashton Cox', 86000, 66, null))
+        employeeRosterCache.applyDeleted(0)
+        employeeRosterCache.applyDeleted(8)
+        def updated = employeeRosterCache.currentRoster
+
+        then: 'Expect the fingerprint and id lookups of a roster built from scratch'
+        updated.fingerprint == new EmployeeRoster(updated.employees.collect(), 0L).fingerprint
+        updated.employees*.id == [7, 9]
+        updated.findEmployee(9).employeeName == 'Ashton Cox'
+        updated.findEmployee(0) == null
+    }
+
+    def 'Changes applied while a load is in flight are replayed onto its result'() {
+        given: 'A loaded roster and a reload that returns data fetched before a create'
+        ReflectionTestUtils.setField(employeeRosterCache, "ttlMillis", 0L)
+        employeeRosterCache.getRoster({ getEmployeesListMock() } as EmployeeRosterCache.RosterLoader)
+        def loader = {
+            employeeRosterCache.applyCreated(new Employee(7, 'Tiger Nixon', 320800, 61, ''))
+            getEmployeesListMock()
+        } as EmployeeRosterCache.RosterLoader
+
+        when: 'The reload completes'
+        def roster = employeeRosterCache.getRoster(loader)
+
+        then: 'Expect the created employee to be kept'
+        roster.employees*.id == [0, 7]
+        employeeRosterCache.currentRoster.is(roster)
+    }
+
+    def 'Roster is reconciled with the upstream periodically'() {
+        given: 'A short reconcile interval'
+        ReflectionTestUtils.setField(employeeRosterCache, "reconcileMillis", 10L)
+        def reconciled = new CountDownLatch(2)
+        def loader = { reconciled.countDown(); getEmployeesListMock() } as EmployeeRosterCache.RosterLoader
+
+        when: 'Reconciliation is scheduled'
+        employeeRosterCache.scheduleReconcile(loader)
+
+        then: 'Expect the roster to be reloaded without being read'
+        reconciled.await(5, TimeUnit.SECONDS)
+        employeeRosterCache.currentRoster.employees.size() == 1
+    }
+}
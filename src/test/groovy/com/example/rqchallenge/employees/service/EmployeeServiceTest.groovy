@@ -5,16 +5,18 @@ import com.example.rqchallenge.employees.exception.EmployeeCreationException
 import com.example.rqchallenge.employees.exception.EmployeeDeleteException
 import com.example.rqchallenge.employees.exception.EmployeeIdLookupException
 import com.example.rqchallenge.employees.exception.EmployeeNotFoundException
+import com.example.rqchallenge.employees.exception.InvalidEmployeeQueryException
 import com.example.rqchallenge.employees.models.Employee
 import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import org.apache.http.StatusLine
 import org.apache.http.client.methods.CloseableHttpResponse
 import org.apache.http.client.methods.HttpDelete
 import org.apache.http.client.methods.HttpGet
 import org.apache.http.client.methods.HttpPost
 import org.apache.http.entity.BasicHttpEntity
+import org.apache.http.message.BasicHeader
 import org.apache.http.impl.client.CloseableHttpClient
-import org.springframework.test.util.ReflectionTestUtils
 import spock.lang.Specification
 
 import static com.example.rqchallenge.employees.mocks.EmployeeMocks.*
@@ -56,8 +58,12 @@ class EmployeeServiceTest extends Specification {
         deleteEmployeeResponse = getDeleteEmployeeResponse()
         mockEmployee = getEmployeeMock()
 
-        employeeService = new EmployeeService(closeableHttpClient, objectMapper, appLocalCache)
-        ReflectionTestUtils.setField(employeeService, "employeeApiUrl", "http://some-test-url", String.class)
+        employeeService = new EmployeeService(closeableHttpClient, objectMapper, appLocalCache, new EmployeeRosterCache(),
+                new EmployeeJsonDecoder(new ObjectMapper()), new UpstreamGuard(5, 10000, 500, 30000, 1000, 1),
+                new UpstreamMetrics(new SimpleMeterRegistry()),
+                new EmployeeAnalyzer(50000, [25, 35, 45, 55, 65] as int[], [0.5, 0.99] as double[], 10000),
+                new UpstreamEndpoints(['http://some-test-url'], 1000), new UpstreamHedger(false, 0.95, 20, 1000, 0.1),
+                new EmployeeLookupCoalescer(0, 64, 1))
     }
 
     def 'Request to get all employees - status code is not 200'() {
@@ -69,7 +75,8 @@ class EmployeeServiceTest extends Specification {
         when: 'The getAllEmployees method is called and an error occurs'
         employeeService.getAllEmployees()
 
-        then: 'Except an AllEmployeeLookupException to be thrown'
+        then: 'Except an AllEmployeeLookupException to be thrown and the response to be closed'
+        1 * closeableHttpResponse.close()
         def error = thrown(AllEmployeeLookupException)
         error.message == 'An error occurred. Http status: [500]'
     }
@@ -125,6 +132,65 @@ class EmployeeServiceTest extends Specification {
         !response.isEmpty()
     }
 
+    def 'Request to get all employees - roster not modified upstream'() {
+        given: 'An upstream that returns the roster with an ETag and then reports it unchanged'
+        closeableHttpResponse.getStatusLine() >> statusLine
+        statusLine.getStatusCode() >> 200
+        closeableHttpResponse.getFirstHeader('ETag') >> new BasicHeader('ETag', '"v1"')
+        BasicHttpEntity httpEntity = new BasicHttpEntity()
+        httpEntity.setContent(new ByteArrayInputStream(employeesFoundResponse.getBytes()))
+        closeableHttpResponse.getEntity() >> httpEntity
+
+        CloseableHttpResponse notModifiedResponse = Mock()
+        StatusLine notModifiedStatusLine = Mock()
+        notModifiedResponse.getStatusLine() >> notModifiedStatusLine
+        notModifiedStatusLine.getStatusCode() >> 304
+
+        def requests = []
+        closeableHttpClient.execute(_ as HttpGet) >> { HttpGet request ->
+            requests << request
+            requests.size() == 1 ? closeableHttpResponse : notModifiedResponse
+        }
+
+        when: 'The roster is requested twice'
+        def first = employeeService.getAllEmployees()
+        def second = employeeService.getAllEmployees()
+
+        then: 'Expect a conditional request and the roster to be kept as is'
+        requests.size() == 2
+        requests[0].getFirstHeader('If-None-Match') == null
+        requests[1].getFirstHeader('If-None-Match').value == '"v1"'
+        first.is(second)
+    }
+
+    def 'Request to get a page of employees'() {
+        given: 'An upstream that returns three employees'
+        closeableHttpClient.execute(_ as HttpGet) >> closeableHttpResponse
+        closeableHttpResponse.getStatusLine() >> statusLine
+        statusLine.getStatusCode() >> 200
+        BasicHttpEntity httpEntity = new BasicHttpEntity()
+        httpEntity.setContent(new ByteArrayInputStream(getAllEmployeeMultipleResponse().getBytes()))
+        closeableHttpResponse.getEntity() >> httpEntity
+
+        expect: 'Each page to be a window over the roster'
+        employeeService.getEmployeesPage(offset, limit)*.employeeName == expected
+
+        where:
+        offset | limit || expected
+        0      | null  || ['Tiger Nixon', 'Garrett Winters', 'Ashton Cox']
+        1      | 1     || ['Garrett Winters']
+        2      | 10    || ['Ashton Cox']
+        5      | 2     || []
+    }
+
+    def 'Request to get a page of employees - negative offset'() {
+        when: 'The getEmployeesPage method is called with a negative offset'
+        employeeService.getEmployeesPage(-1, null)
+
+        then: 'Expect an InvalidEmployeeQueryException'
+        thrown(InvalidEmployeeQueryException)
+    }
+
     def 'Request to search employee by name'() {
         given: 'A request to search an employee by name'
         closeableHttpClient.execute(_ as HttpGet) >> closeableHttpResponse
@@ -160,6 +226,23 @@ class EmployeeServiceTest extends Specification {
         response == 320800
     }
 
+    def 'Request to get highest salary - oldest employee is not the highest earner'() {
+        given: 'A request to get highest salary'
+        closeableHttpClient.execute(_ as HttpGet) >> closeableHttpResponse
+        closeableHttpResponse.getStatusLine() >> statusLine
+        statusLine.getStatusCode() >> 200
+        BasicHttpEntity httpEntity = new BasicHttpEntity()
+        InputStream inputStream = new ByteArrayInputStream(getAllEmployeeMultipleResponse().getBytes())
+        httpEntity.setContent(inputStream)
+        closeableHttpResponse.getEntity() >> httpEntity
+
+        when: 'The getHighestSalaryOfEmployees method is called'
+        def response = employeeService.getHighestSalaryOfEmployees()
+
+        then: 'Except the highest salary to be returned'
+        response == 320800
+    }
+
     def 'Request to get highest salary - no Employee found'() {
         given: 'A request to get highest salary'
         closeableHttpClient.execute(_ as HttpGet) >> closeableHttpResponse
@@ -195,6 +278,23 @@ class EmployeeServiceTest extends Specification {
         response.size() > 0
     }
 
+    def 'Request to get the top k highest earning employees'() {
+        given: 'A request to get the top k highest earning employees'
+        closeableHttpClient.execute(_ as HttpGet) >> closeableHttpResponse
+        closeableHttpResponse.getStatusLine() >> statusLine
+        statusLine.getStatusCode() >> 200
+        BasicHttpEntity httpEntity = new BasicHttpEntity()
+        InputStream inputStream = new ByteArrayInputStream(getAllEmployeeMultipleResponse().getBytes())
+        httpEntity.setContent(inputStream)
+        closeableHttpResponse.getEntity() >> httpEntity
+
+        when: 'The getTopHighestEarningEmployeeNames method is called'
+        def response = employeeService.getTopHighestEarningEmployeeNames(2)
+
+        then: 'Except the names of the two highest earners, highest first'
+        response == ['Tiger Nixon', 'Garrett Winters']
+    }
+
     def 'Request to get employee by ID - employee ID is blank'() {
         given: 'A request to get an employee by ID'
 
@@ -269,7 +369,21 @@ class EmployeeServiceTest extends Specification {
         when: 'The getEmployeeById method is called and the employee is not found'
         employeeService.getEmployeeById('1000')
 
-        then: 'Except an EmployeeNotFoundException to be thrown'
+        then: 'Except an EmployeeNotFoundException to be thrown and the miss to be cached'
+        1 * appLocalCache.addNotFoundToEmployeeCacheById('1000')
+        thrown(EmployeeNotFoundException)
+    }
+
+    def 'Request to get employee by ID - employee cached as not found'() {
+        given: 'A request to get an employee by ID'
+        appLocalCache.getFromEmployeeCacheById(_ as String) >> null
+        appLocalCache.isNotFoundInEmployeeCacheById('1000') >> true
+
+        when: 'The getEmployeeById method is called and the employee is cached as not found'
+        employeeService.getEmployeeById('1000')
+
+        then: 'Except an EmployeeNotFoundException to be thrown without calling the upstream'
+        0 * closeableHttpClient.execute(_ as HttpGet)
         thrown(EmployeeNotFoundException)
     }
 
@@ -288,6 +402,7 @@ class EmployeeServiceTest extends Specification {
         def response = employeeService.getEmployeeById('1000')
 
         then: 'Except an EmployeeNotFoundException to be thrown'
+        1 * appLocalCache.addToEmployeeCacheById('1000', _ as Employee)
         response.employeeName == 'Tiger Nixon'
         response.employeeAge == 61
     }
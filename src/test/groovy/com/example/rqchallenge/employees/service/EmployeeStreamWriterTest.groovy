@@ -0,0 +1,47 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.models.Employee
+import com.example.rqchallenge.employees.models.EmployeeField
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Specification
+
+class EmployeeStreamWriterTest extends Specification {
+
+    private EmployeeStreamWriter employeeStreamWriter = new EmployeeStreamWriter(new ObjectMapper())
+
+    private List<Employee> employees = [
+            new Employee(1, 'Tiger Nixon', 320800, 61, ''),
+            new Employee(2, 'Garrett Winters', 170750, 63, '')
+    ]
+
+    def 'Write employees as newline delimited JSON'() {
+        given: 'An output stream'
+        def outputStream = new ByteArrayOutputStream()
+
+        when: 'The employees are written with a subset of fields'
+        employeeStreamWriter.writeNdjson(employees, EnumSet.of(EmployeeField.ID, EmployeeField.EMPLOYEE_SALARY), outputStream)
+
+        then: 'Expect one projected employee per line'
+        outputStream.toString() == '{"id":1,"employeeSalary":320800}\n{"id":2,"employeeSalary":170750}\n'
+    }
+
+    def 'Write employees as a JSON array'() {
+        given: 'An output stream'
+        def outputStream = new ByteArrayOutputStream()
+
+        when: 'The employees are written with every field'
+        employeeStreamWriter.writeJsonArray(employees, EmployeeField.parse(null), outputStream)
+
+        then: 'Expect the same content as the regular serialization'
+        def written = new ObjectMapper().readValue(outputStream.toByteArray(), Employee[].class) as List
+        written == employees
+    }
+
+    def 'Reject an unknown field name'() {
+        when: 'An unknown field is requested'
+        EmployeeField.parse('id,salary')
+
+        then: 'Expect an IllegalArgumentException'
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.models.Employee
+import org.springframework.test.util.ReflectionTestUtils
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class RosterSnapshotStoreTest extends Specification {
+
+    @TempDir
+    Path snapshotDirectory
+
+    private EmployeeRosterCache employeeRosterCache = new EmployeeRosterCache()
+    private AppLocalCache appLocalCache = new AppLocalCache(100, 60000, 60000)
+
+    def cleanup() {
+        employeeRosterCache.shutdown()
+    }
+
+    def 'Roster and cached employees survive a write and read'() {
+        given: 'A snapshot store and a roster'
+        def store = store(86400000L)
+        def roster = new EmployeeRoster([
+                new Employee(1, 'Tiger Nixon', 320800, 61, ''),
+                new Employee(2, 'Zoë Ångström', 170750, 63, null)
+        ], System.currentTimeMillis())
+
+        when: 'The roster is written and read back'
+        store.write(roster, ['3': new Employee(3, 'Ashton Cox', 86000, 66, '')])
+        def snapshot = store.read().get()
+
+        then: 'Expect the same employees and timestamp'
+        snapshot.takenAt() == roster.loadedAt
+        snapshot.employees() == roster.employees
+        snapshot.cachedEmployees()['3'].employeeName == 'Ashton Cox'
+    }
+
+    def 'Corrupted snapshot is ignored'() {
+        given: 'A snapshot file with a flipped byte'
+        def store = store(86400000L)
+        store.write(new EmployeeRoster([new Employee(1, 'Tiger Nixon', 320800, 61, '')], System.currentTimeMillis()), [:])
+        def file = snapshotDirectory.resolve('roster.snapshot')
+        def bytes = Files.readAllBytes(file)
+        bytes[20] = (byte) (bytes[20] ^ 0xFF)
+        Files.write(file, bytes)
+
+        expect: 'Expect nothing to be read'
+        !store.read().present
+    }
+
+    def 'Snapshot older than the max age is ignored'() {
+        given: 'A snapshot taken an hour ago and a max age of one minute'
+        def store = store(60000L)
+        store.write(new EmployeeRoster([new Employee(1, 'Tiger Nixon', 320800, 61, '')], System.currentTimeMillis() - 3600000L), [:])
+
+        expect: 'Expect nothing to be read'
+        !store.read().present
+    }
+
+    def 'Startup restores the caches from the snapshot'() {
+        given: 'A snapshot on disk and a roster cache with a TTL'
+        ReflectionTestUtils.setField(employeeRosterCache, "ttlMillis", 60000L)
+        ReflectionTestUtils.setField(employeeRosterCache, "refreshAheadMillis", 45000L)
+        def store = store(86400000L)
+        store.write(new EmployeeRoster([new Employee(1, 'Tiger Nixon', 320800, 61, '')], System.currentTimeMillis()),
+                ['1': new Employee(1, 'Tiger Nixon', 320800, 61, '')])
+
+        when: 'The store runs at startup'
+        store.run(null)
+
+        then: 'Expect the roster and the by ID cache to be seeded'
+        employeeRosterCache.getRoster({ throw new IllegalStateException() } as EmployeeRosterCache.RosterLoader)
+                .employees*.employeeName == ['Tiger Nixon']
+        appLocalCache.getFromEmployeeCacheById('1').employeeName == 'Tiger Nixon'
+    }
+
+    def 'Startup does not restore cached employees whose TTL passed since the snapshot'() {
+        given: 'A snapshot taken longer ago than the by ID cache TTL'
+        def store = store(86400000L)
+        store.write(new EmployeeRoster([new Employee(1, 'Tiger Nixon', 320800, 61, '')], System.currentTimeMillis() - 120000),
+                ['1': new Employee(1, 'Tiger Nixon', 320800, 61, '')])
+
+        when: 'The store runs at startup'
+        store.run(null)
+
+        then: 'Expect the by ID cache to stay empty'
+        appLocalCache.getFromEmployeeCacheById('1') == null
+    }
+
+    private RosterSnapshotStore store(long maxAgeMillis) {
+        return new RosterSnapshotStore(employeeRosterCache, appLocalCache, true, snapshotDirectory.resolve('roster.snapshot'), maxAgeMillis)
+    }
+}
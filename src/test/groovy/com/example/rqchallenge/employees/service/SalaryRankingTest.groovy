@@ -0,0 +1,77 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.models.Employee
+import spock.lang.Specification
+
+class SalaryRankingTest extends Specification {
+
+    private SalaryRanking salaryRanking
+
+    def setup() {
+        salaryRanking = new SalaryRanking(columns())
+    }
+
+    def 'Highest salary and top earners are read from the ranking'() {
+        expect: 'The highest salary and the top earners, highest first'
+        salaryRanking.highestSalary.asInt == 433060
+        salaryRanking.getTop(2)*.employeeName == ['Cedric Kelly', 'Tiger Nixon']
+        salaryRanking.getTop(10).size() == 4
+        salaryRanking.getTop(0).isEmpty()
+        salaryRanking.getTopNames(3) == ['Cedric Kelly', 'Tiger Nixon', 'Garrett Winters']
+    }
+
+    def 'Empty ranking has no highest salary'() {
+        expect: 'No highest salary'
+        !new SalaryRanking(EmployeeColumns.of([])).highestSalary.present
+    }
+
+    def 'Created employee is inserted at its ranked position'() {
+        given: 'Columns with the created employee as their last row'
+        def updated = columns().withAppended(employee(5, 'Airi Satou', 162700))
+
+        when: 'The row is added'
+        def ranking = salaryRanking.withAdded(updated)
+
+        then: 'Expect the employee at its ranked position and the original ranking unchanged'
+        ranking.getTop(5)*.employeeName == ['Cedric Kelly', 'Tiger Nixon', 'Garrett Winters', 'Airi Satou', 'Ashton Cox']
+        salaryRanking.size() == 4
+    }
+
+    def 'Equal salaries are ranked in roster order'() {
+        when: 'An employee with the same salary as an existing one is added'
+        def ranking = salaryRanking.withAdded(columns().withAppended(employee(5, 'Airi Satou', 320800)))
+
+        then: 'Expect the created employee after the existing one'
+        ranking.getTopNames(3) == ['Cedric Kelly', 'Tiger Nixon', 'Airi Satou']
+    }
+
+    def 'Deleted employee is removed from the ranking'() {
+        when: 'The row of the highest earner is removed'
+        def ranking = salaryRanking.withRemoved(columns().withoutRow(3), 3)
+
+        then: 'Expect the next highest salary to lead the ranking'
+        ranking.highestSalary.asInt == 320800
+        ranking.size() == 3
+    }
+
+    def 'Rows after a deleted row are renumbered'() {
+        when: 'The first row is removed'
+        def ranking = salaryRanking.withRemoved(columns().withoutRow(0), 0)
+
+        then: 'Expect the remaining employees in ranked order'
+        ranking.getTop(3)*.employeeName == ['Cedric Kelly', 'Garrett Winters', 'Ashton Cox']
+    }
+
+    private static EmployeeColumns columns() {
+        return EmployeeColumns.of([
+                employee(1, 'Tiger Nixon', 320800),
+                employee(2, 'Garrett Winters', 170750),
+                employee(3, 'Ashton Cox', 86000),
+                employee(4, 'Cedric Kelly', 433060)
+        ])
+    }
+
+    private static Employee employee(int id, String name, int salary) {
+        return Employee.builder().id(id).employeeName(name).employeeSalary(salary).build()
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.rqchallenge.employees.service
+
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class UpstreamEndpointsTest extends Specification {
+
+    private UpstreamEndpoints upstreamEndpoints
+    private UpstreamEndpoints.Endpoint first
+    private UpstreamEndpoints.Endpoint second
+
+    def setup() {
+        upstreamEndpoints = new UpstreamEndpoints(['http://first', ' http://second'], 1000)
+        first = upstreamEndpoints.endpoints[0]
+        second = upstreamEndpoints.endpoints[1]
+    }
+
+    def 'Endpoints without samples are tried first, the least busy of them first'() {
+        when: 'A request is started on the first endpoint'
+        upstreamEndpoints.onStart(first)
+
+        then: 'Expect the second endpoint to be selected next'
+        second.url == 'http://second'
+        upstreamEndpoints.select().is(second)
+    }
+
+    def 'The endpoint with the lowest latency is selected'() {
+        given: 'The first endpoint answered faster than the second'
+        complete(first, 10)
+        complete(second, 50)
+
+        expect: 'The first endpoint, and the second when the first is excluded'
+        upstreamEndpoints.select().is(first)
+        upstreamEndpoints.selectOther(first).is(second)
+        second.uri('/employees').toString() == 'http://second/employees'
+    }
+
+    def 'Requests in flight weigh the latency'() {
+        given: 'The first endpoint is faster but has three requests in flight'
+        complete(first, 10)
+        complete(second, 30)
+        3.times { upstreamEndpoints.onStart(first) }
+
+        expect: 'The second endpoint to be selected'
+        upstreamEndpoints.select().is(second)
+    }
+
+    def 'A failure counts as at least the failure penalty'() {
+        given: 'The first endpoint is the faster one'
+        complete(first, 10)
+        complete(second, 50)
+
+        when: 'The first endpoint fails fast'
+        upstreamEndpoints.onStart(first)
+        upstreamEndpoints.onFailure(first, TimeUnit.MILLISECONDS.toNanos(1))
+
+        then: 'Expect its average to move towards the penalty and the second endpoint to be selected'
+        Math.abs(first.averageNanos - TimeUnit.MILLISECONDS.toNanos(208)) < 1
+        upstreamEndpoints.select().is(second)
+    }
+
+    def 'A cancelled request does not change the latency'() {
+        given: 'The first endpoint is the slower one'
+        complete(first, 50)
+        complete(second, 10)
+
+        when: 'A request to the first endpoint is abandoned soon after it started'
+        upstreamEndpoints.onStart(first)
+        upstreamEndpoints.onCancelled(first)
+
+        then: 'Expect its average to be unchanged and nothing left in flight'
+        first.averageNanos == TimeUnit.MILLISECONDS.toNanos(50)
+        first.inFlight.get() == 0
+        upstreamEndpoints.select().is(second)
+    }
+
+    def 'A single endpoint is its own alternative'() {
+        given: 'Only one endpoint'
+        def single = new UpstreamEndpoints(['http://only'], 1000)
+
+        expect: 'The same endpoint when it is excluded'
+        single.selectOther(single.select()).is(single.select())
+    }
+
+    private void complete(UpstreamEndpoints.Endpoint endpoint, long millis) {
+        upstreamEndpoints.onStart(endpoint)
+        upstreamEndpoints.onComplete(endpoint, TimeUnit.MILLISECONDS.toNanos(millis))
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.rqchallenge.employees.service
+
+import com.example.rqchallenge.employees.exception.UpstreamUnavailableException
+import org.apache.http.HttpResponse
+import org.apache.http.HttpVersion
+import org.apache.http.message.BasicHttpResponse
+import spock.lang.Specification
+
+class UpstreamGuardTest extends Specification {
+
+    def 'Circuit opens after consecutive failures and rejects calls'() {
+        given: 'A guard that opens after two failures'
+        def upstreamGuard = new UpstreamGuard(2, 60000, 500, 30000, 1000, 1)
+
+        when: 'Two calls fail with a server error'
+        2.times {
+            upstreamGuard.acquire()
+            upstreamGuard.onResponse(response(503))
+        }
+        upstreamGuard.acquire()
+
+        then: 'Expect the next call to be rejected while the circuit is open'
+        thrown(UpstreamUnavailableException)
+        upstreamGuard.circuitState == UpstreamGuard.CircuitState.OPEN
+        upstreamGuard.status.failureCount == 2
+        upstreamGuard.status.rejectedCount == 1
+        upstreamGuard.status.circuitOpenCount == 1
+    }
+
+    def 'A successful probe closes the circuit'() {
+        given: 'A guard whose circuit has opened and whose open period has passed'
+        def upstreamGuard = new UpstreamGuard(1, 50, 500, 30000, 1000, 1)
+        upstreamGuard.acquire()
+        upstreamGuard.onFailure()
+        Thread.sleep(100)
+
+        when: 'A single probe is let through and succeeds'
+        upstreamGuard.acquire()
+        def stateDuringProbe = upstreamGuard.circuitState
+        upstreamGuard.onResponse(response(200))
+
+        then: 'Expect the circuit to be closed again'
+        stateDuringProbe == UpstreamGuard.CircuitState.HALF_OPEN
+        upstreamGuard.circuitState == UpstreamGuard.CircuitState.CLOSED
+    }
+
+    def 'A cancelled probe lets the next call probe again'() {
+        given: 'A guard whose circuit has opened and whose open period has passed'
+        def upstreamGuard = new UpstreamGuard(1, 50, 500, 30000, 1000, 1)
+        upstreamGuard.acquire()
+        upstreamGuard.onFailure()
+        Thread.sleep(100)
+
+        when: 'The probe is cancelled before it gets a response and another call is made'
+        upstreamGuard.acquire()
+        upstreamGuard.onCancelled()
+        upstreamGuard.acquire()
+
+        then: 'Expect the next call to be let through as a probe rather than rejected'
+        noExceptionThrown()
+        upstreamGuard.circuitState == UpstreamGuard.CircuitState.HALF_OPEN
+        upstreamGuard.status.rejectedCount == 0
+        upstreamGuard.status.failureCount == 1
+    }
+
+    def 'A 429 honors Retry-After and lowers the allowed rate'() {
+        given: 'A guard allowing 40 requests per second'
+        def upstreamGuard = new UpstreamGuard(5, 10000, 10, 30000, 40, 1)
+        def throttled = response(429)
+        throttled.setHeader('Retry-After', '2')
+
+        when: 'The upstream throttles a call'
+        upstreamGuard.acquire()
+        upstreamGuard.onResponse(throttled)
+        upstreamGuard.acquire()
+
+        then: 'Expect calls to be rejected until Retry-After has passed and the rate to be halved'
+        def error = thrown(UpstreamUnavailableException)
+        error.retryAfterMillis > 1000
+        upstreamGuard.status.throttledCount == 1
+        upstreamGuard.status.allowedRequestsPerSecond == 20
+        upstreamGuard.circuitState == UpstreamGuard.CircuitState.CLOSED
+    }
+
+    def 'Calls beyond the allowed rate are rejected'() {
+        given: 'A guard allowing two requests per second'
+        def upstreamGuard = new UpstreamGuard(5, 10000, 500, 30000, 2, 1)
+
+        when: 'Three calls are made at once'
+        3.times { upstreamGuard.acquire() }
+
+        then: 'Expect the third call to be rejected'
+        thrown(UpstreamUnavailableException)
+        upstreamGuard.status.rejectedCount == 1
+    }
+
+    private static HttpResponse response(int statusCode) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, null)
+    }
+}
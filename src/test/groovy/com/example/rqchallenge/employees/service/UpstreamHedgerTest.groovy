@@ -0,0 +1,124 @@
+package com.example.rqchallenge.employees.service
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class UpstreamHedgerTest extends Specification {
+
+    private UpstreamHedger upstreamHedger
+    private List<String> discarded
+
+    def setup() {
+        upstreamHedger = new UpstreamHedger(true, 0.95, 1, 20, 0)
+        discarded = []
+    }
+
+    def cleanup() {
+        upstreamHedger.shutdown()
+    }
+
+    def 'A slow first request is hedged and the hedge answers'() {
+        given: 'A first request that only ends when it is cancelled'
+        def primary = new SlowAttempt('primary', 5000)
+
+        when: 'The call is executed'
+        def result = upstreamHedger.execute('op', primary, new FastAttempt('hedge'), { discarded << it })
+
+        then: 'Expect the hedge to win and the first request to be cancelled'
+        result == 'hedge'
+        primary.cancelled.count == 0
+        upstreamHedger.wonCount == 1
+        upstreamHedger.lostCount == 0
+        discarded.isEmpty()
+    }
+
+    def 'A fast first request is not hedged'() {
+        given: 'A hedge that fails the test if it is sent'
+        def hedge = Mock(UpstreamHedger.Attempt)
+
+        when: 'The call is executed'
+        def result = upstreamHedger.execute('op', new FastAttempt('primary'), hedge, { discarded << it })
+
+        then: 'Expect the first request to answer without a hedge'
+        result == 'primary'
+        0 * hedge.call()
+        upstreamHedger.wonCount == 0
+        upstreamHedger.skippedCount == 0
+    }
+
+    def 'Hedges are skipped once the budget is spent'() {
+        given: 'No budget is added by calls, so only the initial burst of hedges is allowed'
+        10.times {
+            upstreamHedger.execute('op', new SlowAttempt('primary', 5000), new FastAttempt('hedge'), { discarded << it })
+        }
+
+        when: 'Another slow call is executed'
+        def result = upstreamHedger.execute('op', new SlowAttempt('primary', 100), new FastAttempt('hedge'), { discarded << it })
+
+        then: 'Expect the call to wait for the first request'
+        result == 'primary'
+        upstreamHedger.wonCount == 10
+        upstreamHedger.skippedCount == 1
+    }
+
+    def 'Disabled hedging only sends the first request'() {
+        given: 'A disabled hedger'
+        def disabledHedger = new UpstreamHedger(false, 0.95, 1, 20, 0.1)
+
+        when: 'A slow call is executed'
+        def result = disabledHedger.execute('op', new SlowAttempt('primary', 100), new FastAttempt('hedge'), { discarded << it })
+
+        then: 'Expect the first request to answer'
+        result == 'primary'
+        disabledHedger.wonCount == 0
+
+        cleanup:
+        disabledHedger.shutdown()
+    }
+
+    private static class FastAttempt implements UpstreamHedger.Attempt<String> {
+        private final String result
+
+        FastAttempt(String result) {
+            this.result = result
+        }
+
+        @Override
+        String call() throws IOException {
+            result
+        }
+
+        @Override
+        void cancel() {
+        }
+    }
+
+    /**
+     * Answers after the given time unless it is cancelled first
+     */
+    private static class SlowAttempt implements UpstreamHedger.Attempt<String> {
+        private final String result
+        private final long millis
+        final CountDownLatch cancelled = new CountDownLatch(1)
+
+        SlowAttempt(String result, long millis) {
+            this.result = result
+            this.millis = millis
+        }
+
+        @Override
+        String call() throws IOException {
+            if (cancelled.await(millis, TimeUnit.MILLISECONDS)) {
+                throw new IOException('Aborted')
+            }
+            result
+        }
+
+        @Override
+        void cancel() {
+            cancelled.countDown()
+        }
+    }
+}
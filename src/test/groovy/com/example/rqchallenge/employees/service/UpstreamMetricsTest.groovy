@@ -0,0 +1,41 @@
+package com.example.rqchallenge.employees.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.apache.http.entity.StringEntity
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+import static com.example.rqchallenge.employees.mocks.EmployeeMocks.getAllEmployeeMultipleResponse
+
+class UpstreamMetricsTest extends Specification {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    private UpstreamMetrics upstreamMetrics = new UpstreamMetrics(meterRegistry)
+
+    def 'Decoding records the decode time and payload size'() {
+        given: 'An employee list response'
+        def body = getAllEmployeeMultipleResponse()
+        def decoder = new EmployeeJsonDecoder(new ObjectMapper())
+
+        when: 'The response is decoded'
+        def employees = upstreamMetrics.decode(UpstreamMetrics.CLIENT_BLOCKING, UpstreamMetrics.OPERATION_ALL,
+                new StringEntity(body), decoder::decodeEmployeeList)
+
+        then: 'Expect one decode timing and the number of bytes read'
+        employees.size() == 3
+        meterRegistry.get('employee.upstream.decode').tag('operation', 'all').timer().count() == 1
+        meterRegistry.get('employee.upstream.payload').tag('operation', 'all').summary().totalAmount() == body.bytes.length
+    }
+
+    def 'Requests are timed per operation and status'() {
+        when: 'Two by ID requests complete with different statuses'
+        upstreamMetrics.recordRequest(UpstreamMetrics.CLIENT_BLOCKING, UpstreamMetrics.OPERATION_BY_ID, '200', TimeUnit.MILLISECONDS.toNanos(5))
+        upstreamMetrics.recordRequest(UpstreamMetrics.CLIENT_BLOCKING, UpstreamMetrics.OPERATION_BY_ID, '429', TimeUnit.MILLISECONDS.toNanos(1))
+
+        then: 'Expect a timer per status'
+        meterRegistry.get('employee.upstream.requests').tags('operation', 'by-id', 'status', '200').timer().count() == 1
+        meterRegistry.get('employee.upstream.requests').tags('operation', 'by-id', 'status', '429').timer().count() == 1
+    }
+}